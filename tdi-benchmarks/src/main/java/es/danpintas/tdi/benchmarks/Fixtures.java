@@ -0,0 +1,103 @@
+package es.danpintas.tdi.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates and compiles class hierarchies with a large number of members.
+ *
+ * @author danpintas
+ */
+final class Fixtures {
+    
+    private static final String PACKAGE = "es.danpintas.tdi.benchmarks.generated";
+    
+    private Fixtures() {
+        // utils class
+    }
+    
+    /**
+     * Compiles a hierarchy where every level overrides the methods of the previous one and declares
+     * as many of its own, all of them {@code Inject} annotated.
+     *
+     * @param depth   Number of classes in the hierarchy.
+     * @param methods Total number of declared methods.
+     * @return Most specific {@link Class}.
+     */
+    static Class<?> overridingHierarchy(int depth, int methods) {
+        int perLevel = Math.max(1, methods / depth / 2);
+        return compile("Overriding", depth, (level, body) -> {
+            for (int k = 0; k < perLevel; k++) {
+                body.append("@Inject public void m").append(k).append("(String s) {}\n");
+                body.append("@Inject public void u").append(level).append('_').append(k)
+                        .append("(String s) {}\n");
+            }
+        });
+    }
+    
+    /**
+     * Compiles a hierarchy where every level declares static {@code Inject} fields and methods.
+     *
+     * @param depth   Number of classes in the hierarchy.
+     * @param members Total number of static members.
+     * @return Most specific {@link Class}.
+     */
+    static Class<?> staticHierarchy(int depth, int members) {
+        int perLevel = Math.max(1, members / depth / 2);
+        return compile("Statics", depth, (level, body) -> {
+            for (int k = 0; k < perLevel; k++) {
+                body.append("@Inject static String f").append(k).append(";\n");
+                body.append("@Inject static void s").append(k).append("(String s) {}\n");
+            }
+        });
+    }
+    
+    @FunctionalInterface
+    private interface Body {
+        void write(int level, StringBuilder body);
+    }
+    
+    private static Class<?> compile(String prefix, int depth, Body body) {
+        try {
+            Path dir = Files.createTempDirectory("tdi-benchmarks");
+            Path packageDir = Files.createDirectories(dir.resolve(PACKAGE.replace('.', '/')));
+            List<String> arguments = new ArrayList<>();
+            arguments.add("-classpath");
+            arguments.add(System.getProperty("java.class.path"));
+            for (int level = 0; level < depth; level++) {
+                StringBuilder source = new StringBuilder("package ").append(PACKAGE).append(";\n")
+                        .append("import javax.inject.Inject;\n")
+                        .append("public class ").append(prefix).append(level);
+                if (level > 0)
+                    source.append(" extends ").append(prefix).append(level - 1);
+                source.append(" {\n");
+                body.write(level, source);
+                source.append("}\n");
+                Path file = packageDir.resolve(prefix + level + ".java");
+                Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+                arguments.add(file.toString());
+            }
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null || compiler.run(null, null, null, arguments.toArray(new String[0])) != 0)
+                throw new IllegalStateException("Unable to compile the " + prefix + " fixtures");
+            ClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()},
+                    Fixtures.class.getClassLoader());
+            return loader.loadClass(PACKAGE + '.' + prefix + (depth - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+}
@@ -0,0 +1,50 @@
+package es.danpintas.tdi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danpintas.tdi.injection.InjectionPoints;
+
+/**
+ * Analysis of a hierarchy whose levels override each other's {@code Inject} methods.
+ *
+ * @author danpintas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverrideResolutionBenchmark {
+    
+    @Param({"4"})
+    public int depth;
+    
+    @Param({"100", "1000", "5000"})
+    public int methods;
+    
+    private Class<?> type;
+    
+    @Setup
+    public void setUp() {
+        type = Fixtures.overridingHierarchy(depth, methods);
+    }
+    
+    @Benchmark
+    public InjectionPoints analyse() {
+        return InjectionPoints.of(type);
+    }
+    
+}
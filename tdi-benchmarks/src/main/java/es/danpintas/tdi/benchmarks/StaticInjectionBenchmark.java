@@ -0,0 +1,60 @@
+package es.danpintas.tdi.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danpintas.tdi.AbstractInjector;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.keys.ScopeKey;
+
+/**
+ * Build of an injector binding a hierarchy with many static injection points.
+ *
+ * @author danpintas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticInjectionBenchmark {
+    
+    @Param({"4"})
+    public int depth;
+    
+    @Param({"100", "1000", "5000"})
+    public int members;
+    
+    private Class<?> type;
+    
+    @Setup
+    public void setUp() {
+        type = Fixtures.staticHierarchy(depth, members);
+    }
+    
+    @Benchmark
+    public Injector build() {
+        return new AbstractInjector(binder -> {
+            binder.bind(String.class).to("value");
+            binder.bind(type);
+        }) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[0];
+            }
+        };
+    }
+    
+}
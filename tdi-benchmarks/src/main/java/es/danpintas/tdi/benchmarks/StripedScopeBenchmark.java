@@ -0,0 +1,105 @@
+package es.danpintas.tdi.benchmarks;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.danpintas.tdi.AbstractInjector;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.providers.StripedProvider;
+
+/**
+ * Provision of a heavy, non thread safe helper from several threads, comparing a prototype, a
+ * {@link ThreadLocal} and a striped scope.
+ *
+ * @author danpintas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class StripedScopeBenchmark {
+    
+    @javax.inject.Scope
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Striped {
+        
+    }
+    
+    public static class Digester {
+        
+        private final MessageDigest digest;
+        
+        public Digester() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        
+        byte[] digest(byte[] data) {
+            return digest.digest(data);
+        }
+        
+    }
+    
+    @Striped
+    public static class StripedDigester extends Digester {
+        
+    }
+    
+    private final byte[] data = new byte[64];
+    private final ThreadLocal<Digester> local = ThreadLocal.withInitial(Digester::new);
+    private Injector injector;
+    
+    @Setup
+    public void setUp() {
+        injector = new AbstractInjector(binder -> {
+            binder.bind(Digester.class);
+            binder.bind(StripedDigester.class);
+        }) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{StripedProvider.scope(Striped.class)};
+            }
+        };
+    }
+    
+    @Benchmark
+    public byte[] prototype() {
+        return injector.getInstance(Digester.class).digest(data);
+    }
+    
+    @Benchmark
+    public byte[] threadLocal() {
+        return local.get().digest(data);
+    }
+    
+    @Benchmark
+    public byte[] striped() {
+        Digester digester = injector.getInstance(StripedDigester.class);
+        synchronized (digester) {
+            return digester.digest(data);
+        }
+    }
+    
+}
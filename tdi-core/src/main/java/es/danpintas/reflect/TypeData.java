@@ -24,6 +24,13 @@ public class TypeData<T> {
     private static final String NOT_SUPERTYPE_CONSTRUCTOR = "%s does not construct a supertype of %s";
     private static final String NOT_SUPERTYPE = "%s is not defined by a supertype of %s";
     
+    private static final ClassValue<TypeData<?>> CLASSES = new ClassValue<TypeData<?>>() {
+        @Override
+        protected TypeData<?> computeValue(Class<?> type) {
+            return new TypeData<>(type);
+        }
+    };
+    
     private final Class<? super T> rawType;
     private final Type type;
     private final int hashCode;
@@ -41,7 +48,7 @@ public class TypeData<T> {
      * @param type Underlying {@link Type}.
      */
     public static TypeData get(Type type) {
-        return new TypeData<>(type);
+        return type instanceof Class ? CLASSES.get((Class<?>) type) : new TypeData<>(type);
     }
     
     /**
@@ -49,8 +56,9 @@ public class TypeData<T> {
      *
      * @param type Underlying {@link Type} as {@link Class}.
      */
+    @SuppressWarnings("unchecked")
     public static <T> TypeData<T> get(Class<T> type) {
-        return new TypeData<>(type);
+        return (TypeData<T>) CLASSES.get(type);
     }
     
     /**
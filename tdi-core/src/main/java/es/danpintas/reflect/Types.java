@@ -24,6 +24,14 @@ import javax.inject.Provider;
  */
 public final class Types {
     
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+    
+    static {
+        for (Class<?> c : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class})
+            PRIMITIVES.put(c.getName(), c);
+    }
+    
     @FunctionalInterface
     private interface CompositeType {
         boolean isFullySpecified();
@@ -578,6 +586,19 @@ public final class Types {
                 "Primitive types are not allowed in %s: %s", use, type);
     }
     
+    /**
+     * Loads a class by its {@link Class#getName() name}, including primitive ones.
+     *
+     * @param name   {@link Class} name.
+     * @param loader {@link ClassLoader} to load the class with.
+     * @return Loaded {@link Class}, not initialized.
+     * @throws ClassNotFoundException If the class can not be found.
+     */
+    public static Class<?> forName(String name, ClassLoader loader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, loader);
+    }
+    
     /**
      * Gets a {@code List} with the {@code Class} hierarchy of a given {@code Class}.
      *
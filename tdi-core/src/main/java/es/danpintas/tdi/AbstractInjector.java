@@ -1,26 +1,67 @@
 package es.danpintas.tdi;
 
+import static es.danpintas.reflect.Types.getTypeHierarchy;
+import static es.danpintas.tdi.utils.TypeUtils.isScoped;
+
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.inject.Provider;
 import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.reflect.Types;
+import es.danpintas.tdi.assisted.Assisted;
+import es.danpintas.tdi.assisted.AssistedFactory;
 import es.danpintas.tdi.bindings.Binding;
 import es.danpintas.tdi.bindings.BindingConfig;
+import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.injection.InjectionPoints;
 import es.danpintas.tdi.injection.MemberInjector;
 import es.danpintas.tdi.keys.BindingKey;
 import es.danpintas.tdi.keys.ProviderKey;
 import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.monitoring.BuildPhase;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import es.danpintas.tdi.monitoring.ProvisionListeners;
+import es.danpintas.tdi.nativeimage.ReachabilityMetadata;
+import es.danpintas.tdi.profile.StartupProfile;
 import es.danpintas.tdi.providers.InstanceProvider;
+import es.danpintas.tdi.providers.MapProvider;
 import es.danpintas.tdi.providers.PrototypeProvider;
+import es.danpintas.tdi.providers.Providers;
+import es.danpintas.tdi.providers.SetProvider;
 import es.danpintas.tdi.providers.SingletonProvider;
+import es.danpintas.tdi.snapshot.GraphSnapshot;
 
 /**
  * Abstract implementation for {@link Injector}.
@@ -31,16 +72,262 @@ public abstract class AbstractInjector implements Injector {
     
     private static final Function<InstanceProvider, Provider> PROTOTYPE = PrototypeProvider::new;
     private static final Function<InstanceProvider, Provider> SINGLETON = SingletonProvider::new;
+    private static final AtomicInteger IDS = new AtomicInteger();
+    
+    private static final class ChildInjector extends AbstractInjector {
+        
+        private ChildInjector(AbstractInjector parent, Module module, Module... modules) {
+            super(parent, module, modules);
+        }
+        
+        @Override
+        protected ScopeKey[] getScopes() {
+            return new ScopeKey[0];
+        }
+        
+    }
+    
+    private static final class MapEntry<K, V> {
+        
+        private final TypeData<K> keyType;
+        private final K key;
+        private final Binding<V> value;
+        
+        private MapEntry(TypeData<K> keyType, K key, Binding<V> value) {
+            this.keyType = keyType;
+            this.key = key;
+            this.value = value;
+        }
+        
+    }
+    
+    private static final class DeferredModule {
+        
+        private final Module module;
+        private final BindingKey<?>[] keys;
+        
+        private DeferredModule(Module module, BindingKey<?>[] keys) {
+            this.module = module;
+            this.keys = keys;
+        }
+        
+    }
+    
+    /**
+     * Provider handed out while linking, installing its deferred module on first use.
+     */
+    private final class DeferredProvider<T> implements Provider<T> {
+        
+        private final BindingKey<T> key;
+        private final DeferredModule module;
+        private volatile Provider<T> provider;
+        
+        private DeferredProvider(BindingKey<T> key, DeferredModule module) {
+            this.key = key;
+            this.module = module;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            Provider<T> p = provider;
+            if (p == null)
+                provider = p = (Provider<T>) installDeferred(key, module);
+            return p.get();
+        }
+        
+    }
+    
+    /**
+     * Providers built by one thread and not linked yet. <br/>
+     * Providers reached while linking are handed out unlinked, even if another linkage is still
+     * building them, and bindings made just in time are published once every provider they reach
+     * is linked. Each linkage only waits for the others once its own providers are linked, so
+     * cycles across threads do not deadlock.
+     */
+    private final class Linkage {
+        
+        private final List<InstanceProvider<?>> unlinked = new ArrayList<>();
+        private final List<MemberInjector> staticMembers = new ArrayList<>();
+        private final Map<ProviderKey<?>, Provider<?>> registered = new HashMap<>();
+        private final Map<BindingKey<?>, JustInTimeBinding> owned = new HashMap<>();
+        private final Map<BindingKey<?>, Provider<?>> pending = new HashMap<>();
+        private final Set<Linkage> awaited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final CountDownLatch linked = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable failure;
+        
+        private void link() {
+            for (int i = 0; i < unlinked.size(); i++)
+                unlinked.get(i).initProviders();
+            unlinked.clear();
+        }
+        
+        private void awaitOthers() {
+            for (ProviderKey<?> key : registered.keySet())
+                pendingProviders.remove(key, this);
+            linked.countDown();
+            for (Linkage other : awaited) {
+                await(other.linked);
+                if (other.failure != null)
+                    throw new InjectException(other.failure);
+            }
+        }
+        
+        private void injectStaticMembers() {
+            List<MemberInjector> members = new ArrayList<>(staticMembers);
+            staticMembers.clear();
+            Map<Class<?>, Integer> depths = new HashMap<>();
+            members.sort(Comparator.comparingInt(m -> getStaticRank(m, depths)));
+            for (MemberInjector member : members)
+                member.inject(null);
+        }
+        
+        private void publish() {
+            justInTimeBindings.putAll(pending);
+            for (Map.Entry<BindingKey<?>, JustInTimeBinding> binding : owned.entrySet())
+                justInTimeBindings.put(binding.getKey(), binding.getValue().provider);
+            for (Map.Entry<BindingKey<?>, JustInTimeBinding> binding : owned.entrySet())
+                justInTimeBuilds.remove(binding.getKey(), binding.getValue());
+            done.countDown();
+        }
+        
+        /**
+         * Drops every provider and binding built by this linkage, so a later request builds them
+         * again.
+         */
+        private void fail(Throwable cause) {
+            failure = cause;
+            for (Map.Entry<ProviderKey<?>, Provider<?>> provider : registered.entrySet()) {
+                providers.remove(provider.getKey(), provider.getValue());
+                pendingProviders.remove(provider.getKey(), this);
+            }
+            for (Map.Entry<BindingKey<?>, JustInTimeBinding> binding : owned.entrySet()) {
+                justInTimeBuilds.remove(binding.getKey(), binding.getValue());
+                binding.getValue().created.countDown();
+            }
+            linked.countDown();
+            done.countDown();
+        }
+        
+    }
+    
+    /**
+     * Binding made just in time, handed out to other linkages as soon as its provider is created.
+     */
+    private static final class JustInTimeBinding {
+        
+        private final Linkage owner;
+        private final CountDownLatch created = new CountDownLatch(1);
+        private volatile Provider<?> provider;
+        
+        private JustInTimeBinding(Linkage owner) {
+            this.owner = owner;
+        }
+        
+    }
+    
+    /**
+     * Binder buffering the bindings of a single {@link Module}, so modules can be installed
+     * concurrently and merged in load order afterwards.
+     */
+    private final class InjectorBinder implements Binder {
+        
+        private final Module module;
+        private final List<Binding<?>> builders = new ArrayList<>();
+        private final List<Binding<?>> setElements = new ArrayList<>();
+        private final List<MapEntry<?, ?>> mapEntries = new ArrayList<>();
+        private final List<DeferredModule> deferred = new ArrayList<>();
+        private RuntimeException failure;
+        
+        private InjectorBinder(Module module) {
+            this.module = module;
+        }
+        
+        private void install() {
+            try {
+                module.install(this);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        
+        @Override
+        public <T> BindingConfig<T> bind(TypeData<T> typeData) {
+            Binding<T> builder = new Binding<>(typeData, AbstractInjector.this::getOrBuildProvider);
+            builders.add(builder);
+            return builder;
+        }
+        
+        @Override
+        public <F> BindingConfig<F> bindFactory(Class<F> factoryType) {
+            Binding<F> builder = new Binding<>(TypeData.get(factoryType),
+                    (key, implementation, scope) -> buildFactory(factoryType));
+            builders.add(builder);
+            return builder;
+        }
+        
+        @Override
+        public <T> BindingConfig<T> addToSet(TypeData<T> elementType) {
+            Binding<T> element = new Binding<>(elementType, AbstractInjector.this::getOrBuildProvider);
+            setElements.add(element);
+            return element;
+        }
+        
+        @Override
+        public <K, V> BindingConfig<V> addToMap(TypeData<K> keyType, K key, TypeData<V> valueType) {
+            Binding<V> value = new Binding<>(valueType, AbstractInjector.this::getOrBuildProvider);
+            mapEntries.add(new MapEntry<>(keyType, key, value));
+            return value;
+        }
+        
+        @Override
+        public void defer(Module module, BindingKey<?>... keys) {
+            deferred.add(new DeferredModule(module, keys.clone()));
+        }
+        
+    }
+    
+    private final int id = IDS.incrementAndGet();
+    private final AbstractInjector parent;
+    private final ProvisionListener[] listeners;
+    private final ProvisionListener listener;
+    private final List<ObjectName> mBeans = new LinkedList<>();
+    private final Path snapshotPath;
+    private final GraphSnapshot snapshot;
+    private volatile boolean snapshotStale;
+    private final Path profilePath;
+    private final StartupProfile profile;
+    private final Path metadataPath;
+    private final Set<Class<?>> factories = new HashSet<>();
     
     private final List<Binding<?>> builders = new LinkedList<>();
-    private final Map<BindingKey<?>, Provider<?>> bindings = new HashMap<>();
+    private volatile Map<BindingKey<?>, Provider<?>> bindings = new HashMap<>();
+    private final Map<BindingKey<?>, Binding<?>> bound = new HashMap<>();
+    private final Map<Module, List<BindingKey<?>>> installed = new IdentityHashMap<>();
+    private final List<Binding<?>> setElements = new LinkedList<>();
+    private final List<MapEntry<?, ?>> mapEntries = new LinkedList<>();
+    private final Map<BindingKey<?>, List<Binding<?>>> sets = new LinkedHashMap<>();
+    private final Map<BindingKey<?>, List<MapEntry<?, ?>>> maps = new LinkedHashMap<>();
+    private final Map<BindingKey<?>, Provider<?>[]> multibound = new HashMap<>();
+    private final List<DeferredModule> deferred = new LinkedList<>();
+    private final Map<BindingKey<?>, DeferredModule> deferredModules = new HashMap<>();
+    private final boolean justInTime;
+    private final Map<BindingKey<?>, Provider<?>> justInTimeBindings = new ConcurrentHashMap<>();
+    private final Map<BindingKey<?>, JustInTimeBinding> justInTimeBuilds = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final ThreadLocal<Linkage> linkage = new ThreadLocal<>();
+    private final boolean parallelInstall;
     
-    private final Map<TypeData<?>, InstanceProvider<?>> instanceProviders = new HashMap<>();
-    private final List<MemberInjector> staticMembers = new LinkedList<>();
+    private final Map<Class<?>, InjectionPoints> injectionPoints = new ConcurrentHashMap<>();
+    private final Set<MemberInjector> staticMembers = ConcurrentHashMap.newKeySet();
     private final List<Runnable> preDestroy = new LinkedList<>();
+    private final Map<ProviderKey<?>, List<Runnable>> singletonPreDestroy = new ConcurrentHashMap<>();
     
     private final Map<Class<? extends Annotation>, Function<InstanceProvider, Provider>> scopes = new HashMap<>();
-    private final Map<ProviderKey<?>, Provider<?>> providers = new HashMap<>();
+    private final Map<ProviderKey<?>, Provider<?>> providers = new ConcurrentHashMap<>();
+    private final Map<ProviderKey<?>, Linkage> pendingProviders = new ConcurrentHashMap<>();
+    private final Relinker relinker = new Relinker(providers, justInTimeBindings, multibound);
     
     /**
      * Constructor.
@@ -49,15 +336,43 @@ public abstract class AbstractInjector implements Injector {
      * @param modules Additional Modules.
      */
     public AbstractInjector(Module module, Module... modules) {
-        scopes.put(Singleton.class, SINGLETON);
-        for (ScopeKey scope : getScopes())
-            scopes.put(scope.getAnnotation(), scope.getProvision());
-        Module base = i -> i.bind(Injector.class).to(this);
-        base.install(this::bindingBuild);
-        module.install(this::bindingBuild);
-        for (Module m : modules)
-            m.install(this::bindingBuild);
+        this((AbstractInjector) null, module, modules);
+    }
+    
+    private AbstractInjector(AbstractInjector parent, Module module, Module... modules) {
+        this.parent = parent;
+        this.snapshotPath = parent == null ? getSnapshotPath() : null;
+        this.snapshot = loadSnapshot(snapshotPath);
+        this.profilePath = parent == null ? getProfilePath() : null;
+        this.profile = profilePath != null ? new StartupProfile() : null;
+        this.metadataPath = getReachabilityMetadataPath();
+        this.justInTime = parent == null && isJustInTime();
+        this.parallelInstall = parent != null ? parent.parallelInstall : isParallelInstall();
+        if (parent != null) {
+            scopes.putAll(parent.scopes);
+            listeners = new ProvisionListener[0];
+            listener = parent.listener;
+        } else {
+            scopes.put(Singleton.class, SINGLETON);
+            for (ScopeKey scope : getScopes())
+                scopes.put(scope.getAnnotation(), scope.getProvision());
+            listeners = getProvisionListeners();
+            listener = ProvisionListeners.of(profile == null ? listeners
+                    : append(listeners, profile));
+        }
+        phase(BuildPhase.INSTALL, () -> install(module, modules));
         build();
+        saveSnapshot();
+        saveReachabilityMetadata();
+        registerMBeans();
+        replayProfile();
+    }
+    
+    private static ProvisionListener[] append(ProvisionListener[] listeners,
+                                              ProvisionListener listener) {
+        ProvisionListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        return result;
     }
     
     /**
@@ -67,113 +382,838 @@ public abstract class AbstractInjector implements Injector {
      */
     protected abstract ScopeKey[] getScopes();
     
-    private <T> BindingConfig<T> bindingBuild(TypeData<T> typeData) {
-        Binding<T> builder = new Binding<>(typeData, this::getOrBuildProvider);
-        builders.add(builder);
-        return builder;
+    /**
+     * Fetches the listeners observing the provisioning path. <br/>
+     * Listeners implementing an MXBean interface are registered in the platform MBean server
+     * until the injector is destroyed. By default there are none, and provisioning is not observed.
+     *
+     * @return ProvisionListener[]
+     */
+    protected ProvisionListener[] getProvisionListeners() {
+        return new ProvisionListener[0];
+    }
+    
+    /**
+     * Declares if unbound classes are bound just in time. <br/>
+     * When enabled, requesting an unqualified concrete class without a binding builds its provider
+     * on first use, as if the class had been bound to itself, and later requests read it without
+     * locking. Child injectors delegate them to their root. By default they are not, and such
+     * requests get no provider.
+     *
+     * @return true to bind concrete classes just in time, false otherwise.
+     */
+    protected boolean isJustInTime() {
+        return false;
+    }
+    
+    /**
+     * Declares if modules are installed concurrently. <br/>
+     * When enabled, each module records its bindings into its own buffer on the common
+     * fork-join pool, and the buffers are merged in load order once all of them are installed,
+     * so the result is the same as installing them one by one. The implementation classes are then
+     * analysed concurrently as well, and linked one by one. Modules must then not share mutable
+     * state. Child injectors use the setting of their root. By default they are not.
+     *
+     * @return true to install modules concurrently, false otherwise.
+     */
+    protected boolean isParallelInstall() {
+        return false;
+    }
+    
+    /**
+     * Fetches the path of the graph snapshot. <br/>
+     * When set, the analysis of each implementation class is read from the snapshot if its class
+     * files did not change, and the snapshot is rewritten after the build if any class had to be
+     * analysed. The snapshot is only a cache, so failing to write it never stops the injector. By
+     * default there is none.
+     *
+     * @return Snapshot {@link Path}, or null to always analyse reflectively.
+     */
+    protected Path getSnapshotPath() {
+        return null;
+    }
+    
+    /**
+     * Fetches the path of the startup profile. <br/>
+     * When set, the injector records the order in which implementations are first provisioned,
+     * and writes it when destroyed. If the profile exists on startup, the recorded
+     * implementations are loaded and initialized in that order on a background thread, while
+     * the rest stay lazy. A profile that cannot be written is skipped. By default there is none.
+     *
+     * @return Profile {@link Path}, or null to neither record nor replay a profile.
+     */
+    protected Path getProfilePath() {
+        return null;
+    }
+    
+    /**
+     * Declares if replaying the startup profile also creates the recorded singletons. <br/>
+     * By default it does not, and only their classes are loaded and initialized.
+     *
+     * @return true to create recorded singletons ahead of time, false otherwise.
+     */
+    protected boolean isProfileProvisioning() {
+        return false;
+    }
+    
+    /**
+     * Fetches the directory for GraalVM native-image reachability metadata. <br/>
+     * When set, {@code reflect-config.json} and {@code proxy-config.json} are written there after
+     * the build, and again when destroyed to include the classes bound later, covering every
+     * analysed implementation, factory and qualifier of this injector. Pointing it to
+     * {@code META-INF/native-image/<group>/<artifact>} in the resources lets native-image pick them
+     * up. Metadata that cannot be written is skipped. By default there is none.
+     *
+     * @return Metadata directory {@link Path}, or null to write no metadata.
+     */
+    protected Path getReachabilityMetadataPath() {
+        return null;
+    }
+    
+    private static GraphSnapshot loadSnapshot(Path path) {
+        try {
+            return path != null && Files.isRegularFile(path) ? GraphSnapshot.load(path) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private void replayProfile() {
+        List<StartupProfile.Entry> entries = Collections.emptyList();
+        if (profilePath != null && Files.isRegularFile(profilePath))
+            try {
+                entries = StartupProfile.read(profilePath);
+            } catch (IOException e) {
+                // recorded again on destroy
+            }
+        if (entries.isEmpty())
+            return;
+        List<StartupProfile.Entry> replayed = entries;
+        Thread thread = new Thread(() -> replay(replayed), "tdi-profile-" + id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void replay(List<StartupProfile.Entry> entries) {
+        Map<String, ProviderKey<?>> recorded = new HashMap<>();
+        synchronized (lock) {
+            for (ProviderKey<?> key : providers.keySet())
+                recorded.put(getProfileName(key.getTypeData().getRawType().getName(),
+                        key.getScope() != null ? key.getScope().getName() : null), key);
+        }
+        for (StartupProfile.Entry entry : entries)
+            try {
+                prepare(entry, recorded.get(getProfileName(entry.getType(), entry.getScope())));
+            } catch (ClassNotFoundException | RuntimeException | LinkageError e) {
+                // left to the first request, which reports it
+            }
+    }
+    
+    private static String getProfileName(String type, String scope) {
+        return scope != null ? type + '@' + scope : type;
+    }
+    
+    private void prepare(StartupProfile.Entry entry, ProviderKey<?> key)
+            throws ClassNotFoundException {
+        Class<?> type;
+        Provider<?> provider;
+        if (key != null) {
+            type = key.getTypeData().getRawType();
+            synchronized (lock) {
+                provider = providers.get(key);
+            }
+        } else if (justInTime) {
+            type = Types.forName(entry.getType(), getClass().getClassLoader());
+            provider = getProvider(new BindingKey<>(TypeData.get(type), null));
+        } else {
+            return;
+        }
+        initialize(type);
+        if (provider != null && isProfileProvisioning()
+                && Singleton.class.getName().equals(entry.getScope()))
+            provider.get();
+    }
+    
+    private void saveReachabilityMetadata() {
+        if (metadataPath == null)
+            return;
+        ReachabilityMetadata metadata = new ReachabilityMetadata();
+        synchronized (lock) {
+            for (InjectionPoints points : injectionPoints.values())
+                metadata.addInjectionPoints(points);
+            for (Class<?> factory : factories)
+                metadata.addFactory(factory);
+            for (Set<BindingKey<?>> keys : Arrays.asList(bound.keySet(), relinker.getDependencies(),
+                    deferredModules.keySet(), multibound.keySet()))
+                for (BindingKey<?> key : keys)
+                    metadata.addQualifier(key.getQualifier());
+        }
+        try {
+            metadata.write(metadataPath);
+        } catch (IOException e) {
+            // only consumed by native-image builds, written again on destroy
+        }
+    }
+    
+    private void saveSnapshot() {
+        if (snapshotPath != null && (snapshot == null || snapshotStale))
+            try {
+                GraphSnapshot.write(snapshotPath, injectionPoints.values());
+            } catch (IOException e) {
+                // the snapshot is only a cache, analysed reflectively again on the next startup
+            }
+    }
+    
+    private void install(Module module, Module... modules) {
+        InjectorBinder[] binders = new InjectorBinder[modules.length + 2];
+        binders[0] = new InjectorBinder(i -> i.bind(Injector.class).to(this));
+        binders[1] = new InjectorBinder(module);
+        for (int m = 0; m < modules.length; m++)
+            binders[m + 2] = new InjectorBinder(modules[m]);
+        if (parallelInstall && modules.length > 0)
+            Arrays.stream(binders).parallel().forEach(InjectorBinder::install);
+        else
+            for (InjectorBinder binder : binders)
+                binder.install();
+        for (int b = 0; b < binders.length; b++) {
+            InjectorBinder binder = binders[b];
+            if (binder.failure != null)
+                throw binder.failure;
+            if (b > 0)
+                installed.put(binder.module, getKeys(binder.builders));
+            builders.addAll(binder.builders);
+            setElements.addAll(binder.setElements);
+            mapEntries.addAll(binder.mapEntries);
+            deferred.addAll(binder.deferred);
+        }
     }
     
     @SuppressWarnings("unchecked")
-    private <T> Provider<T> getOrBuildProvider(TypeData<? extends T> implementation,
+    private static List<BindingKey<?>> getKeys(List<Binding<?>> builders) {
+        List<BindingKey<?>> keys = new ArrayList<>(builders.size());
+        for (Binding<?> builder : builders)
+            keys.add(builder.key());
+        return keys;
+    }
+    
+    private <T> Provider<T> getOrBuildProvider(BindingKey<T> binding,
+                                               TypeData<? extends T> implementation,
                                                Class<? extends Annotation> scope) {
-        ProviderKey<?> key = new ProviderKey<>(implementation, scope);
+        ProviderKey<?> key = new ProviderKey<>(implementation, getScope(implementation, scope),
+                binding);
         Provider<?> provider = providers.get(key);
-        return (Provider<T>) (provider != null ? provider
-                : buildAndRegisterProvider(implementation, scope, key));
+        if (provider == null)
+            provider = buildAndRegisterProvider(key);
+        else
+            awaitLinkage(pendingProviders.get(key));
+        return (Provider<T>) provider;
     }
     
-    private Provider<?> buildAndRegisterProvider(TypeData<?> implementation,
-                                                 Class<? extends Annotation> scope, ProviderKey<?> key) {
-        Provider<?> provider =
-                getProvision(implementation, scope).apply(getInstanceProvider(implementation));
-        providers.put(key, provider);
+    private Provider<?> buildAndRegisterProvider(ProviderKey<?> key) {
+        Function<InstanceProvider, Provider> provision =
+                key.getScope() != null ? scopes.get(key.getScope()) : PROTOTYPE;
+        Provider<?> provider = provision.apply(buildInstanceProvider(key));
+        Provider<?> registered = providers.putIfAbsent(key, provider);
+        if (registered != null) {
+            awaitLinkage(pendingProviders.get(key));
+            return registered;
+        }
+        Linkage current = linkage.get();
+        current.registered.put(key, provider);
+        pendingProviders.put(key, current);
         return provider;
     }
     
-    private Function<InstanceProvider, Provider> getProvision(TypeData<?> implementation,
-                                                              Class<? extends Annotation> scope) {
-        for (Entry<Class<? extends Annotation>, Function<InstanceProvider, Provider>> entry : scopes
-                .entrySet())
-            if (implementation.getRawType().isAnnotationPresent(entry.getKey())
-                    || entry.getKey().equals(scope))
-                return entry.getValue();
-        return PROTOTYPE;
+    /**
+     * Makes the current linkage wait for another one before publishing its bindings.
+     */
+    private void awaitLinkage(Linkage other) {
+        Linkage current = linkage.get();
+        if (other != null && other != current)
+            current.awaited.add(other);
     }
     
-    @SuppressWarnings("unchecked")
-    private <T> InstanceProvider<T> getInstanceProvider(TypeData<T> implementation) {
-        InstanceProvider<?> provider = instanceProviders.get(implementation);
-        return (InstanceProvider<T>) (provider != null ? provider
-                : buildInstanceProvider(implementation));
+    private Class<? extends Annotation> getScope(TypeData<?> implementation,
+                                                 Class<? extends Annotation> scope) {
+        for (Class<? extends Annotation> annotation : scopes.keySet())
+            if (isScoped(implementation.getRawType(), annotation)
+                    || annotation.equals(scope))
+                return annotation;
+        return null;
     }
     
-    private <T> InstanceProvider<T> buildInstanceProvider(TypeData<? extends T> implementation) {
-        InstanceProvider<T> provider = new InstanceProvider<>(implementation, this::getProvider,
-                this::addStaticMembers, this::addPreDestroy);
-        instanceProviders.put(implementation, provider);
+    private <T> InstanceProvider<T> buildInstanceProvider(ProviderKey<? extends T> key) {
+        InjectionPoints points = getInjectionPoints(key.getTypeData().getRawType());
+        InstanceProvider<T> provider = new InstanceProvider<>(key, points,
+                dependency -> getLinkedProvider(key, dependency), this::addStaticMembers,
+                action -> addPreDestroy(key, action), listener);
+        linkage.get().unlinked.add(provider);
         return provider;
     }
     
+    /**
+     * Gets the provider of a dependency, recording while linking which providers depend on each
+     * key so a module swap can link them again.
+     */
+    private Provider<?> getLinkedProvider(ProviderKey<?> user, BindingKey<?> dependency) {
+        if (linkage.get() != null)
+            relinker.addDependent(user, dependency);
+        return getProvider(dependency);
+    }
+    
+    private InjectionPoints getInjectionPoints(Class<?> type) {
+        for (AbstractInjector injector = this; injector != null; injector = injector.parent) {
+            InjectionPoints points = injector.injectionPoints.get(type);
+            if (points != null)
+                return points;
+        }
+        InjectionPoints points = snapshot != null ? snapshot.get(type) : null;
+        if (points == null) {
+            points = InjectionPoints.of(type);
+            snapshotStale = true;
+        }
+        InjectionPoints analysed = injectionPoints.putIfAbsent(type, points);
+        return analysed != null ? analysed : points;
+    }
+    
     /**
      * Initializes the providers of the declared dependencies. <br/>
      * Should be called only once.
      */
     private void build() {
-        
-        for (Binding<?> builder : builders)
-            bindings.put(builder.key(), builder.provider());
+        Linkage linked = newLinkage(() -> {
+            phase(BuildPhase.BINDINGS, this::buildBindings);
+            phase(BuildPhase.LINKING, linkage.get()::link);
+        });
+        phase(BuildPhase.STATIC_INJECTION, linked::injectStaticMembers);
+    }
+    
+    private void buildBindings() {
+        if (parallelInstall)
+            analyse();
+        for (Binding<?> builder : builders) {
+            BindingKey<?> key = builder.key();
+            if (bindings.containsKey(key))
+                throw duplicateBinding(key);
+            bindings.put(key, builder.provider());
+            bound.put(key, builder);
+        }
         builders.clear();
-        
-        for (Entry<TypeData<?>, InstanceProvider<?>> entry : instanceProviders.entrySet())
-            entry.getValue().initProviders();
-        
-        staticMembers.sort(this::compareMembers);
-        for (MemberInjector staticMember : staticMembers)
-            staticMember.inject(null);
-        
+        for (DeferredModule module : deferred)
+            for (BindingKey<?> key : module.keys)
+                if (bindings.containsKey(key) || deferredModules.put(key, module) != null)
+                    throw duplicateBinding(key);
+        deferred.clear();
+        buildSets();
+        buildMaps();
     }
     
-    private int compareMembers(MemberInjector a, MemberInjector b) {
-        int val;
-        Class<?> aClass = a.getDeclaringClass();
-        Class<?> bClass = a.getDeclaringClass();
-        boolean distinctClass = !aClass.equals(bClass);
-        
-        if (distinctClass && a.getDeclaringClass().isAssignableFrom(b.getDeclaringClass()))
-            val = 1;
-        else if (distinctClass && b.getDeclaringClass().isAssignableFrom(a.getDeclaringClass()))
-            val = -1;
-        else if (a.isField() && !b.isField())
-            val = 1;
-        else if (!b.isField() && a.isField())
-            val = -1;
-        else
-            val = 0;
-        return val;
+    /**
+     * Analyses the distinct implementation classes of the bindings on the common fork-join pool,
+     * so linking finds their injection points cached. Failures are left for linking to report.
+     */
+    private void analyse() {
+        Set<Class<?>> types = new HashSet<>();
+        for (Binding<?> builder : builders)
+            addImplementation(types, builder);
+        for (Binding<?> element : setElements)
+            addImplementation(types, element);
+        for (MapEntry<?, ?> entry : mapEntries)
+            addImplementation(types, entry.value);
+        // a list splits evenly across the pool, a hash set may leave every class in one task
+        new ArrayList<>(types).parallelStream().forEach(type -> {
+            try {
+                getInjectionPoints(type);
+            } catch (RuntimeException e) {
+                // analysed again and reported in binding order while linking
+            }
+        });
+    }
+    
+    private static void addImplementation(Set<Class<?>> types, Binding<?> binding) {
+        TypeData<?> implementation = binding.implementation();
+        if (implementation != null && !implementation.getRawType().isInterface())
+            types.add(implementation.getRawType());
+    }
+    
+    private static InjectException duplicateBinding(BindingKey<?> key) {
+        return new InjectException("Duplicate binding for " + key.getTypeData()
+                + (key.getQualifier() != null ? " with " + key.getQualifier() : ""));
+    }
+    
+    /**
+     * Resolves each multibound {@code Set} into a fixed array of element providers.
+     */
+    private void buildSets() {
+        for (Binding<?> element : setElements) {
+            BindingKey<?> key = element.key();
+            TypeData<?> setType = TypeData.get(Types.setOf(key.getTypeData().getType()));
+            sets.computeIfAbsent(new BindingKey<>(setType, key.getQualifier()),
+                    k -> new ArrayList<>()).add(element);
+        }
+        for (Map.Entry<BindingKey<?>, List<Binding<?>>> set : sets.entrySet()) {
+            BindingKey<?> key = set.getKey();
+            if (bindings.containsKey(key) || deferredModules.containsKey(key))
+                throw duplicateBinding(key);
+            bindings.put(key, buildSet(key, set.getValue()));
+        }
+        setElements.clear();
+    }
+    
+    private Provider<?> buildSet(BindingKey<?> key, List<Binding<?>> elements) {
+        Provider<?>[] array = new Provider<?>[elements.size()];
+        boolean constant = true;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = elements.get(i).provider();
+            constant &= Providers.isConstant(array[i]);
+        }
+        multibound.put(key, array);
+        return new SetProvider<>(array, constant);
+    }
+    
+    /**
+     * Resolves each multibound {@code Map} into fixed arrays of keys and value providers.
+     */
+    private void buildMaps() {
+        for (MapEntry<?, ?> entry : mapEntries) {
+            BindingKey<?> key = entry.value.key();
+            TypeData<?> mapType = TypeData.get(
+                    Types.mapOf(entry.keyType.getType(), key.getTypeData().getType()));
+            maps.computeIfAbsent(new BindingKey<>(mapType, key.getQualifier()),
+                    k -> new ArrayList<>()).add(entry);
+        }
+        for (Map.Entry<BindingKey<?>, List<MapEntry<?, ?>>> map : maps.entrySet()) {
+            BindingKey<?> key = map.getKey();
+            if (bindings.containsKey(key) || deferredModules.containsKey(key))
+                throw duplicateBinding(key);
+            bindings.put(key, buildMap(key, map.getValue()));
+        }
+        mapEntries.clear();
+    }
+    
+    private Provider<?> buildMap(BindingKey<?> key, List<MapEntry<?, ?>> entries) {
+        Object[] keys = new Object[entries.size()];
+        Provider<?>[] values = new Provider<?>[entries.size()];
+        Set<Object> unique = new HashSet<>();
+        boolean constant = true;
+        for (int i = 0; i < keys.length; i++) {
+            MapEntry<?, ?> entry = entries.get(i);
+            if (!unique.add(entry.key))
+                throw new InjectException("Duplicate key " + entry.key + " for "
+                        + key.getTypeData());
+            keys[i] = entry.key;
+            values[i] = entry.value.provider();
+            constant &= Providers.isConstant(values[i]);
+        }
+        multibound.put(key, values);
+        return new MapProvider<>(keys, values, constant);
+    }
+    
+    private <F> Provider<F> buildFactory(Class<F> factoryType) {
+        if (!factoryType.isInterface())
+            throw new InjectException(factoryType.getName() + " is not an interface");
+        factories.add(factoryType);
+        TypeData<F> factoryData = TypeData.get(factoryType);
+        Map<Method, InstanceProvider<?>> targets = new HashMap<>();
+        for (Method method : factoryType.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()))
+                continue;
+            TypeData<?> target = factoryData.getReturnType(method);
+            InstanceProvider<?> provider = buildInstanceProvider(
+                    new ProviderKey<>(target, null, new BindingKey<>(target, null)));
+            Constructor<?> constructor = getInjectionPoints(target.getRawType()).getConstructor();
+            if (!Arrays.equals(method.getParameterTypes(), getAssistedTypes(constructor)))
+                throw new InjectException("Factory method " + method
+                        + " does not match the @Assisted parameters of " + constructor);
+            targets.put(method, provider);
+        }
+        return new AssistedFactory<>(factoryType, targets);
+    }
+    
+    private static Class<?>[] getAssistedTypes(Constructor<?> constructor) {
+        List<Class<?>> types = new ArrayList<>();
+        for (Parameter parameter : constructor.getParameters())
+            if (parameter.isAnnotationPresent(Assisted.class))
+                types.add(parameter.getType());
+        return types.toArray(new Class<?>[0]);
+    }
+    
+    /**
+     * Runs an action building providers, then links every provider built meanwhile, publishes the
+     * bindings made just in time and injects the new static members. <br/>
+     * Actions run while linking join the running linkage instead.
+     */
+    private <R> R link(Supplier<R> action) {
+        if (linkage.get() != null)
+            return action.get();
+        List<R> result = new ArrayList<>(1);
+        newLinkage(() -> result.add(action.get())).injectStaticMembers();
+        return result.get(0);
+    }
+    
+    /**
+     * Runs an action building providers in a new linkage, returning it once its providers are
+     * linked and its bindings published, with its static members still to inject. <br/>
+     * On failure, the providers and bindings built by the linkage are dropped.
+     */
+    private Linkage newLinkage(Runnable action) {
+        Linkage current = new Linkage();
+        linkage.set(current);
+        try {
+            action.run();
+            current.link();
+            current.awaitOthers();
+            current.publish();
+            return current;
+        } catch (RuntimeException | Error e) {
+            current.fail(e);
+            throw e;
+        } finally {
+            linkage.remove();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InjectException(e);
+        }
+    }
+    
+    private void phase(BuildPhase phase, Runnable action) {
+        if (listener == null) {
+            action.run();
+            return;
+        }
+        listener.buildStarted(phase);
+        try {
+            action.run();
+        } finally {
+            listener.buildFinished(phase);
+        }
+    }
+    
+    private void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ProvisionListener l : listeners)
+            if (isMXBean(l.getClass()))
+                try {
+                    ObjectName name = new ObjectName("es.danpintas.tdi:type="
+                            + l.getClass().getSimpleName() + ",injector=" + id);
+                    server.registerMBean(l, name);
+                    mBeans.add(name);
+                } catch (JMException e) {
+                    throw new InjectException(e);
+                }
+    }
+    
+    private static boolean isMXBean(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+            for (Class<?> i : c.getInterfaces())
+                if (JMX.isMXBeanInterface(i))
+                    return true;
+        return false;
+    }
+    
+    private void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : mBeans)
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                throw new InjectException(e);
+            }
+        mBeans.clear();
+    }
+    
+    /**
+     * Gets the static injection rank of a member: supertypes before subtypes, and fields before
+     * methods.
+     */
+    private int getStaticRank(MemberInjector member, Map<Class<?>, Integer> depths) {
+        int depth = depths.computeIfAbsent(member.getDeclaringClass(),
+                c -> getTypeHierarchy(c).size());
+        return 2 * depth + (member.isField() ? 0 : 1);
     }
     
     private void addStaticMembers(MemberInjector[] array) {
         for (MemberInjector member : array)
-            if (!staticMembers.contains(member)) {
+            if (!isParentStaticMember(member) && staticMembers.add(member)) {
                 member.providerCheck();
-                staticMembers.add(member);
+                linkage.get().staticMembers.add(member);
             }
     }
     
-    private void addPreDestroy(Runnable action) {
-        preDestroy.add(0, action);
+    private boolean isParentStaticMember(MemberInjector member) {
+        for (AbstractInjector injector = parent; injector != null; injector = injector.parent)
+            if (injector.staticMembers.contains(member))
+                return true;
+        return false;
+    }
+    
+    private void addPreDestroy(ProviderKey<?> key, Runnable action) {
+        synchronized (preDestroy) {
+            preDestroy.add(0, action);
+            if (Singleton.class.equals(key.getScope()))
+                singletonPreDestroy.computeIfAbsent(key, k -> new ArrayList<>()).add(action);
+        }
     }
     
     @Override
     @SuppressWarnings("unchecked")
     public <T> Provider<T> getProvider(BindingKey<T> key) {
-        return (Provider<T>) bindings.get(key);
+        Map<BindingKey<?>, Provider<?>> table = relinker.getStaged();
+        if (table == null || !Thread.holdsLock(lock))
+            table = bindings;
+        Provider<T> provider = (Provider<T>) table.get(key);
+        if (provider != null)
+            return provider;
+        DeferredModule module = deferredModules.get(key);
+        if (module != null)
+            return getDeferredProvider(key, module);
+        if (parent != null)
+            return parent.getProvider(key);
+        return justInTime ? (Provider<T>) getJustInTimeProvider(key) : null;
+    }
+    
+    /**
+     * Gets a binding made just in time. <br/>
+     * Each key is built by the first thread requesting it, without locking, while the rest wait
+     * for it to be published. Requests made while linking get the provider as soon as it is
+     * created, linked or not.
+     */
+    private Provider<?> getJustInTimeProvider(BindingKey<?> key) {
+        Provider<?> provider = justInTimeBindings.get(key);
+        if (provider != null || !isJustInTimeCandidate(key))
+            return provider;
+        if (linkage.get() == null) {
+            JustInTimeBinding building = justInTimeBuilds.get(key);
+            if (building != null) {
+                await(building.owner.done);
+                provider = justInTimeBindings.get(key);
+                if (provider != null)
+                    return provider;
+            }
+        }
+        return link(() -> buildJustInTime(key));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> Provider<T> getDeferredProvider(BindingKey<T> key, DeferredModule module) {
+        Provider<?> provider = justInTimeBindings.get(key);
+        if (provider == null)
+            provider = linkage.get() != null ? new DeferredProvider<>(key, module)
+                    : installDeferred(key, module);
+        return (Provider<T>) provider;
+    }
+    
+    private Provider<?> installDeferred(BindingKey<?> key, DeferredModule module) {
+        Provider<?> provider = justInTimeBindings.get(key);
+        if (provider == null)
+            synchronized (lock) {
+                provider = justInTimeBindings.get(key);
+                if (provider == null)
+                    provider = link(() -> installDeferred(module)).get(key);
+            }
+        return provider;
+    }
+    
+    /**
+     * Installs a deferred module, linking its bindings as if they were made just in time.
+     * <br/>
+     * Providers requested while linking are handed out as {@link DeferredProvider}s, so
+     * depending on a deferred key does not install its module until the first provision.
+     */
+    private Map<BindingKey<?>, Provider<?>> installDeferred(DeferredModule module) {
+        InjectorBinder binder = new InjectorBinder(module.module);
+        binder.install();
+        if (binder.failure != null)
+            throw binder.failure;
+        if (!binder.setElements.isEmpty() || !binder.mapEntries.isEmpty()
+                || !binder.deferred.isEmpty())
+            throw new InjectException("Deferred module " + module.module
+                    + " can only bind its declared keys");
+        Map<BindingKey<?>, Provider<?>> installed = new HashMap<>();
+        for (Binding<?> builder : binder.builders) {
+            BindingKey<?> key = builder.key();
+            if (deferredModules.get(key) != module)
+                throw new InjectException("Deferred module " + module.module
+                        + " does not declare " + key.getTypeData());
+            if (installed.put(key, builder.provider()) != null)
+                throw duplicateBinding(key);
+        }
+        for (BindingKey<?> key : module.keys)
+            if (!installed.containsKey(key))
+                throw new InjectException("Deferred module " + module.module
+                        + " does not bind " + key.getTypeData());
+        linkage.get().pending.putAll(installed);
+        return installed;
+    }
+    
+    private static boolean isJustInTimeCandidate(BindingKey<?> key) {
+        if (key.getQualifier() != null || !(key.getTypeData().getType() instanceof Class))
+            return false;
+        Class<?> type = key.getTypeData().getRawType();
+        int modifiers = type.getModifiers();
+        return !type.isInterface() && !type.isArray() && !type.isPrimitive() && !type.isEnum()
+                && !Modifier.isAbstract(modifiers)
+                && (type.getEnclosingClass() == null || Modifier.isStatic(modifiers));
+    }
+    
+    private <T> Provider<?> buildJustInTime(BindingKey<T> key) {
+        Linkage current = linkage.get();
+        JustInTimeBinding binding = new JustInTimeBinding(current);
+        JustInTimeBinding building = justInTimeBuilds.putIfAbsent(key, binding);
+        if (building == null) {
+            Provider<?> provider = justInTimeBindings.get(key);
+            if (provider != null) {
+                // published since the first lookup
+                justInTimeBuilds.remove(key, binding);
+                return provider;
+            }
+            current.owned.put(key, binding);
+            binding.provider = getOrBuildProvider(key, key.getTypeData(), null);
+            binding.created.countDown();
+            return binding.provider;
+        }
+        if (building.owner != current) {
+            await(building.created);
+            if (building.provider == null)
+                throw new InjectException(building.owner.failure);
+            current.awaited.add(building.owner);
+        }
+        return building.provider;
+    }
+    
+    @Override
+    public Injector createChild(Module module, Module... modules) {
+        return new ChildInjector(this, module, modules);
+    }
+    
+    @Override
+    public void swap(Module module, Module replacement) {
+        InjectorBinder binder = new InjectorBinder(replacement);
+        binder.install();
+        if (binder.failure != null)
+            throw binder.failure;
+        if (!binder.setElements.isEmpty() || !binder.mapEntries.isEmpty()
+                || !binder.deferred.isEmpty())
+            throw new InjectException("Swapped module " + replacement + " can only bind keys");
+        synchronized (lock) {
+            List<BindingKey<?>> keys = installed.get(module);
+            if (keys == null)
+                throw new InjectException("Module " + module + " is not installed in this injector");
+            Map<BindingKey<?>, Binding<?>> replaced = new LinkedHashMap<>();
+            for (Binding<?> builder : binder.builders) {
+                BindingKey<?> key = builder.key();
+                if (bound.containsKey(key) && !keys.contains(key) || multibound.containsKey(key)
+                        || deferredModules.containsKey(key) || replaced.put(key, builder) != null)
+                    throw duplicateBinding(key);
+            }
+            Set<BindingKey<?>> affected = new LinkedHashSet<>(keys);
+            affected.addAll(replaced.keySet());
+            Set<ProviderKey<?>> evicted = relinker.evict(bindings, keys, affected);
+            for (BindingKey<?> key : keys)
+                bound.remove(key);
+            bound.putAll(replaced);
+            relink(affected);
+            installed.remove(module);
+            installed.put(replacement, new ArrayList<>(replaced.keySet()));
+            for (ProviderKey<?> key : evicted) {
+                List<Runnable> actions = singletonPreDestroy.remove(key);
+                if (actions != null) {
+                    synchronized (preDestroy) {
+                        preDestroy.removeAll(actions);
+                    }
+                    for (int a = actions.size() - 1; a >= 0; a--)
+                        actions.get(a).run();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Links the affected bindings again, publishing the new binding table once every one of them
+     * is linked.
+     */
+    private void relink(Set<BindingKey<?>> affected) {
+        bindings = relinker.relink(bindings, affected, table -> link(() -> {
+            for (BindingKey<?> key : affected) {
+                Binding<?> builder = bound.get(key);
+                if (builder != null)
+                    table.put(key, builder.provider());
+                else if (sets.containsKey(key))
+                    table.put(key, buildSet(key, sets.get(key)));
+                else if (maps.containsKey(key))
+                    table.put(key, buildMap(key, maps.get(key)));
+            }
+            return null;
+        }));
+    }
+    
+    @Override
+    public void warmup(int iterations) {
+        List<Class<?>> classes = new ArrayList<>();
+        List<Provider<?>> prototypes = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<ProviderKey<?>, Provider<?>> provider : providers.entrySet()) {
+                Class<?> type = provider.getKey().getTypeData().getRawType();
+                classes.add(type);
+                if (provider.getKey().getScope() == null
+                        && getInjectionPoints(type).getPreDestroy() == null)
+                    prototypes.add(provider.getValue());
+            }
+        }
+        phase(BuildPhase.WARMUP, () -> {
+            for (Class<?> type : classes)
+                initialize(type);
+            List<Runnable> discarded = new ArrayList<>();
+            for (int i = 0; i < iterations; i++)
+                for (Provider<?> prototype : prototypes) {
+                    InstanceProvider.discarded(prototype, discarded);
+                    for (int a = discarded.size() - 1; a >= 0; a--)
+                        discarded.get(a).run();
+                    discarded.clear();
+                }
+        });
+    }
+    
+    private static void initialize(Class<?> type) {
+        try {
+            Class.forName(type.getName(), true, type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new InjectException(e);
+        }
     }
     
     @Override
     public void destroy() {
-        for (Runnable r : preDestroy)
-            r.run();
+        try {
+            saveReachabilityMetadata();
+            saveProfile();
+        } finally {
+            List<Runnable> actions;
+            synchronized (preDestroy) {
+                actions = new ArrayList<>(preDestroy);
+            }
+            try {
+                for (Runnable r : actions)
+                    r.run();
+            } finally {
+                unregisterMBeans();
+            }
+        }
+    }
+    
+    private void saveProfile() {
+        if (profile != null)
+            try {
+                profile.write(profilePath);
+            } catch (IOException e) {
+                // the profile only speeds up the next startup, which runs lazily without it
+            }
     }
     
 }
@@ -1,7 +1,9 @@
 package es.danpintas.tdi;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.assisted.Assisted;
 import es.danpintas.tdi.bindings.BindingConfig;
+import es.danpintas.tdi.keys.BindingKey;
 
 /**
  * Contract for injection configuration though bindings.
@@ -29,4 +31,96 @@ public interface Binder {
      */
     <T> BindingConfig<T> bind(TypeData<T> typeData);
     
+    /**
+     * Binds a factory interface to an implementation created by the injector. <br/>
+     * Each abstract method creates its return type, passing its arguments to the constructor
+     * parameters annotated with {@link Assisted} and injecting the rest.
+     *
+     * @param factoryType Factory interface.
+     * @return Instantiated {@link BindingConfig}, to qualify the factory.
+     */
+    default <F> BindingConfig<F> bindFactory(Class<F> factoryType) {
+        throw new UnsupportedOperationException("Factories are not supported by this binder");
+    }
+    
+    /**
+     * Starts configuration of an element contributed to the {@code Set} of a given {@code Class}.
+     * <br/>
+     * Every element with the same qualifier, from any module, is provided as {@code Set<T>} with
+     * that qualifier.
+     *
+     * @param elementType Element {@link Class}.
+     * @return Instantiated {@link BindingConfig} for the element.
+     */
+    default <T> BindingConfig<T> addToSet(Class<T> elementType) {
+        return addToSet(TypeData.get(elementType));
+    }
+    
+    /**
+     * Starts configuration of an element contributed to the {@code Set} of a given
+     * {@code TypeData}.
+     *
+     * @param elementType Element {@link TypeData}.
+     * @return Instantiated {@link BindingConfig} for the element.
+     */
+    default <T> BindingConfig<T> addToSet(TypeData<T> elementType) {
+        throw new UnsupportedOperationException("Multibindings are not supported by this binder");
+    }
+    
+    /**
+     * Starts configuration of a value contributed to the {@code Map} of the given {@code Class}
+     * pair. <br/>
+     * Every value with the same qualifier, from any module, is provided as {@code Map<K, V>} with
+     * that qualifier. Keys must be unique.
+     *
+     * @param keyType   Key {@link Class}.
+     * @param key       Key of the value.
+     * @param valueType Value {@link Class}.
+     * @return Instantiated {@link BindingConfig} for the value.
+     */
+    default <K, V> BindingConfig<V> addToMap(Class<K> keyType, K key, Class<V> valueType) {
+        return addToMap(TypeData.get(keyType), key, TypeData.get(valueType));
+    }
+    
+    /**
+     * Starts configuration of a value contributed to the {@code Map} of the given
+     * {@code TypeData} pair.
+     *
+     * @param keyType   Key {@link TypeData}.
+     * @param key       Key of the value.
+     * @param valueType Value {@link TypeData}.
+     * @return Instantiated {@link BindingConfig} for the value.
+     */
+    default <K, V> BindingConfig<V> addToMap(TypeData<K> keyType, K key, TypeData<V> valueType) {
+        throw new UnsupportedOperationException("Multibindings are not supported by this binder");
+    }
+    
+    /**
+     * Registers a module that is only installed when one of the given unqualified types is first
+     * requested.
+     *
+     * @param module Deferred {@link Module}.
+     * @param types  Types bound by the module.
+     * @see #defer(Module, BindingKey...)
+     */
+    default void defer(Module module, Class<?>... types) {
+        BindingKey<?>[] keys = new BindingKey<?>[types.length];
+        for (int t = 0; t < types.length; t++)
+            keys[t] = new BindingKey<>(TypeData.get(types[t]), null);
+        defer(module, keys);
+    }
+    
+    /**
+     * Registers a module that is only installed when one of the given keys is first requested.
+     * <br/>
+     * Until then neither the module runs nor its implementations are analysed. The module must
+     * bind exactly the given keys, without multibindings or further deferred modules.
+     *
+     * @param module Deferred {@link Module}.
+     * @param keys   {@link BindingKey}s bound by the module.
+     */
+    default void defer(Module module, BindingKey<?>... keys) {
+        throw new UnsupportedOperationException("Deferred modules are not supported by this binder");
+    }
+    
 }
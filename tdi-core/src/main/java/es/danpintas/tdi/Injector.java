@@ -1,10 +1,16 @@
 package es.danpintas.tdi;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import javax.annotation.PreDestroy;
 import javax.inject.Provider;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.reflect.Validations;
 import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.providers.BatchProvider;
 
 /**
  * Contract for retrieving dependencies.
@@ -71,6 +77,92 @@ public interface Injector {
         return getProvider(key).get();
     }
     
+    /**
+     * Gets several instances of a given {@code Class}.
+     *
+     * @param type  {@link Class} to get instances for.
+     * @param count Number of instances.
+     * @return {@link List} with {@code count} instances for the given {@link Class}.
+     * @see #getInstances(BindingKey, int, boolean)
+     */
+    default <T> List<T> getInstances(Class<T> type, int count) {
+        return getInstances(new BindingKey<>(TypeData.get(type), null), count, false);
+    }
+    
+    /**
+     * Gets several instances of a given {@code BindingKey}.
+     *
+     * @param key   {@link BindingKey} to get instances for.
+     * @param count Number of instances.
+     * @return {@link List} with {@code count} instances for the given {@link BindingKey}.
+     * @see #getInstances(BindingKey, int, boolean)
+     */
+    default <T> List<T> getInstances(BindingKey<T> key, int count) {
+        return getInstances(key, count, false);
+    }
+    
+    /**
+     * Gets several instances of a given {@code BindingKey} in one call. <br/>
+     * The provider is resolved once, and prototypes are created as a batch sharing a single
+     * {@link PreDestroy} registration. Other scopes are asked once per instance.
+     *
+     * @param key      {@link BindingKey} to get instances for.
+     * @param count    Number of instances, not negative.
+     * @param parallel true to spread prototype construction across the common
+     *                 {@link ForkJoinPool}.
+     * @return Fixed-size {@link List} with {@code count} instances for the given
+     * {@link BindingKey}.
+     */
+    @SuppressWarnings("unchecked")
+    default <T> List<T> getInstances(BindingKey<T> key, int count, boolean parallel) {
+        Validations.checkArgument(count >= 0, "Negative count %s", count);
+        Provider<T> provider = getProvider(key);
+        if (provider instanceof BatchProvider)
+            return ((BatchProvider<T>) provider).get(count, parallel);
+        Object[] instances = new Object[count];
+        for (int i = 0; i < count; i++)
+            instances[i] = provider.get();
+        return (List<T>) Arrays.asList(instances);
+    }
+    
+    /**
+     * Creates a child injector. <br/>
+     * The child resolves its own bindings first and then delegates to this injector, sharing its
+     * singletons and the analysis of its implementations. It does not register a shutdown hook,
+     * and destroying it only affects the dependencies it created.
+     *
+     * @param module  First {@link Module}, at least one is required.
+     * @param modules Additional Modules.
+     * @return Child {@link Injector}.
+     */
+    Injector createChild(Module module, Module... modules);
+    
+    /**
+     * Replaces a module installed in this injector by another one binding plain keys. <br/>
+     * The bindings of the replaced module, and every binding depending on them, are linked again
+     * on a copy of the binding table, which then replaces it: lookups never block and always see
+     * either the old or the new table. Singletons dropped by the swap are destroyed. Child
+     * injectors and factories keep the providers they already linked.
+     *
+     * @param module      Installed {@link Module}.
+     * @param replacement Replacing {@link Module}.
+     */
+    void swap(Module module, Module replacement);
+    
+    /**
+     * Warms up the provisioning paths before serving requests. <br/>
+     * Loads and initializes every implementation class provided by this injector, and provisions
+     * each prototype without {@link PreDestroy} methods {@code iterations} times, discarding the
+     * instances, so their call sites are compiled ahead of the first requests. The unscoped
+     * dependencies created meanwhile are destroyed right away instead of being registered with
+     * the injector, while the singletons and other scoped dependencies are kept. <br/>
+     * Warmup provisions are regular provisions: they are reported to the provision listeners and
+     * counted by the provision metrics.
+     *
+     * @param iterations Provisions per prototype, 0 to only initialize classes.
+     */
+    void warmup(int iterations);
+    
     /**
      * Destroys any declared dependencies, calling {@link PreDestroy} methods.
      */
@@ -0,0 +1,153 @@
+package es.danpintas.tdi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.inject.Provider;
+
+import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * Relinking of the bindings affected by a module swap. <br/>
+ * Records while linking which providers depend on each binding key, evicts the providers reached
+ * from the replaced bindings, and links the affected bindings again on a staged copy of the
+ * binding table.
+ *
+ * @author danpintas
+ */
+final class Relinker {
+    
+    private final Map<ProviderKey<?>, Provider<?>> providers;
+    private final Map<BindingKey<?>, Provider<?>> justInTimeBindings;
+    private final Map<BindingKey<?>, Provider<?>[]> multibound;
+    private final Map<BindingKey<?>, Set<ProviderKey<?>>> dependents = new ConcurrentHashMap<>();
+    private volatile Map<BindingKey<?>, Provider<?>> staged;
+    
+    /**
+     * Constructor.
+     *
+     * @param providers          Registered providers of the injector.
+     * @param justInTimeBindings Bindings made just in time by the injector.
+     * @param multibound         Element providers of the injector multibindings.
+     */
+    Relinker(Map<ProviderKey<?>, Provider<?>> providers,
+             Map<BindingKey<?>, Provider<?>> justInTimeBindings,
+             Map<BindingKey<?>, Provider<?>[]> multibound) {
+        this.providers = providers;
+        this.justInTimeBindings = justInTimeBindings;
+        this.multibound = multibound;
+    }
+    
+    /**
+     * Records that a provider depends on a binding key.
+     *
+     * @param user       {@link ProviderKey} of the dependent provider.
+     * @param dependency {@link BindingKey} it depends on.
+     */
+    void addDependent(ProviderKey<?> user, BindingKey<?> dependency) {
+        dependents.computeIfAbsent(dependency, k -> ConcurrentHashMap.newKeySet()).add(user);
+    }
+    
+    /**
+     * Gets the binding keys some provider depends on.
+     *
+     * @return {@link Set} of {@link BindingKey}s.
+     */
+    Set<BindingKey<?>> getDependencies() {
+        return dependents.keySet();
+    }
+    
+    /**
+     * Gets the binding table being relinked, only to be read by the thread relinking it.
+     *
+     * @return Staged binding table, or null if no relink is running.
+     */
+    Map<BindingKey<?>, Provider<?>> getStaged() {
+        return staged;
+    }
+    
+    /**
+     * Drops the providers of the given bindings, and transitively of every provider and binding
+     * depending on them, adding the bindings to link again to {@code affected}.
+     *
+     * @param bindings Current binding table.
+     * @param replaced Replaced {@link BindingKey}s.
+     * @param affected {@link BindingKey}s to link again.
+     * @return Evicted {@link ProviderKey}s.
+     */
+    Set<ProviderKey<?>> evict(Map<BindingKey<?>, Provider<?>> bindings,
+                              List<BindingKey<?>> replaced, Set<BindingKey<?>> affected) {
+        Set<ProviderKey<?>> evicted = new HashSet<>();
+        Set<Provider<?>> dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+        LinkedList<BindingKey<?>> queue = new LinkedList<>(affected);
+        for (BindingKey<?> key : replaced)
+            dropped.add(bindings.get(key));
+        for (Map.Entry<ProviderKey<?>, Provider<?>> provider : providers.entrySet())
+            if (dropped.contains(provider.getValue()))
+                evicted.add(provider.getKey());
+        providers.keySet().removeAll(evicted);
+        int scanned = 0;
+        while (!queue.isEmpty()) {
+            Set<ProviderKey<?>> users = dependents.remove(queue.poll());
+            if (users != null)
+                for (ProviderKey<?> user : users) {
+                    Provider<?> provider = providers.remove(user);
+                    if (provider != null && evicted.add(user))
+                        dropped.add(provider);
+                }
+            if (dropped.size() == scanned)
+                continue;
+            scanned = dropped.size();
+            addUsers(bindings, dropped, affected, queue);
+            addUsers(justInTimeBindings, dropped, affected, queue);
+            for (Map.Entry<BindingKey<?>, Provider<?>[]> multibinding : multibound.entrySet())
+                for (Provider<?> element : multibinding.getValue())
+                    if (dropped.contains(element) && affected.add(multibinding.getKey()))
+                        queue.add(multibinding.getKey());
+        }
+        for (Set<ProviderKey<?>> users : dependents.values())
+            users.removeAll(evicted);
+        return evicted;
+    }
+    
+    private static void addUsers(Map<BindingKey<?>, Provider<?>> table, Set<Provider<?>> dropped,
+                                 Set<BindingKey<?>> affected, List<BindingKey<?>> queue) {
+        for (Map.Entry<BindingKey<?>, Provider<?>> binding : table.entrySet())
+            if (dropped.contains(binding.getValue()) && affected.add(binding.getKey()))
+                queue.add(binding.getKey());
+    }
+    
+    /**
+     * Links the affected bindings again on a copy of the binding table, staged while linking so
+     * the relinking thread resolves the new providers.
+     *
+     * @param bindings Current binding table.
+     * @param affected {@link BindingKey}s to link again.
+     * @param linker   {@link Consumer} linking the affected bindings into the staged table.
+     * @return New binding table, to be published once every affected binding is linked.
+     */
+    Map<BindingKey<?>, Provider<?>> relink(Map<BindingKey<?>, Provider<?>> bindings,
+                                           Set<BindingKey<?>> affected,
+                                           Consumer<Map<BindingKey<?>, Provider<?>>> linker) {
+        Map<BindingKey<?>, Provider<?>> table = new HashMap<>(bindings);
+        table.keySet().removeAll(affected);
+        justInTimeBindings.keySet().removeAll(affected);
+        staged = table;
+        try {
+            linker.accept(table);
+            return table;
+        } finally {
+            staged = null;
+        }
+    }
+    
+}
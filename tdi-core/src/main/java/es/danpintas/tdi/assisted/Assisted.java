@@ -0,0 +1,22 @@
+package es.danpintas.tdi.assisted;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a constructor parameter as supplied by the caller of a factory method instead of by the
+ * injector. <br/>
+ * The assisted parameters of a constructor take the factory method arguments in declaration
+ * order, so both must declare the same types in the same order.
+ *
+ * @author danpintas
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Assisted {
+    
+}
@@ -0,0 +1,76 @@
+package es.danpintas.tdi.assisted;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import es.danpintas.tdi.providers.InstanceProvider;
+
+/**
+ * Implementation of a factory interface, creating the return type of each method through an
+ * {@link InstanceProvider} linked at build time. <br/>
+ * Each method is bound to its target once, when the factory is built. Proxy classes hand the
+ * same {@link Method} to every call, so after the first call of each method it is dispatched by
+ * identity, without hashing. The arguments are passed to the {@link Assisted} constructor
+ * parameters; the rest come from the providers resolved when linking.
+ *
+ * @param <F> Factory type.
+ * @author danpintas
+ */
+public final class AssistedFactory<F> implements Provider<F>, InvocationHandler {
+    
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    private final Class<F> type;
+    private final Method[] methods;
+    private final InstanceProvider<?>[] targets;
+    private final F factory;
+    
+    /**
+     * Constructor.
+     *
+     * @param type    Factory interface.
+     * @param targets {@link InstanceProvider} for each abstract {@link Method} of {@code type}.
+     */
+    public AssistedFactory(Class<F> type, Map<Method, InstanceProvider<?>> targets) {
+        this.type = type;
+        this.methods = targets.keySet().toArray(new Method[0]);
+        this.targets = new InstanceProvider<?>[methods.length];
+        for (int i = 0; i < methods.length; i++)
+            this.targets[i] = targets.get(methods[i]);
+        this.factory = type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+                new Class<?>[]{type}, this));
+    }
+    
+    @Override
+    public F get() {
+        return factory;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        for (int i = 0; i < methods.length; i++)
+            if (methods[i] == method)
+                return targets[i].create(args != null ? args : NO_ARGS);
+        for (int i = 0; i < methods.length; i++)
+            if (methods[i].equals(method)) {
+                // the proxy class publishes its Method instances when initialized
+                methods[i] = method;
+                return targets[i].create(args != null ? args : NO_ARGS);
+            }
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return type.getName() + " factory";
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+    
+}
@@ -1,12 +1,12 @@
 package es.danpintas.tdi.bindings;
 
 import java.lang.annotation.Annotation;
-import java.util.function.BiFunction;
 
 import javax.inject.Provider;
 
 import es.danpintas.reflect.TypeData;
 import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.providers.ConstantProvider;
 import es.danpintas.tdi.utils.Qualifiers;
 
 /**
@@ -17,23 +17,29 @@ import es.danpintas.tdi.utils.Qualifiers;
  */
 public final class Binding<T> implements BindingConfig<T> {
     
-    private static final class ProviderImpl<T> implements Provider<T> {
-        
-        private final T instance;
-        
-        private ProviderImpl(T instance) {
-            this.instance = instance;
-        }
+    /**
+     * Contract for building the {@link Provider} of a binding.
+     *
+     * @param <T> Binding type.
+     */
+    @FunctionalInterface
+    public interface ProviderBuilder<T> {
         
-        @Override
-        public T get() {
-            return instance;
-        }
+        /**
+         * Builds the provider of a binding.
+         *
+         * @param key            Binding {@link BindingKey}.
+         * @param implementation Implementation {@link TypeData}.
+         * @param scope          Scope annotation {@link Class}, null if none.
+         * @return Binding {@link Provider}.
+         */
+        Provider<T> build(BindingKey<T> key, TypeData<? extends T> implementation,
+                          Class<? extends Annotation> scope);
         
     }
     
     private final TypeData<T> typeData;
-    private final BiFunction<TypeData<? extends T>, Class<? extends Annotation>, Provider<T>> providerBuilder;
+    private final ProviderBuilder<T> providerBuilder;
     private Annotation qualifier;
     private TypeData<? extends T> implementation;
     private Class<? extends Annotation> scope;
@@ -43,11 +49,11 @@ public final class Binding<T> implements BindingConfig<T> {
      * Constructor.
      *
      * @param typeData        Binding {@link TypeData}.
-     * @param providerBuilder {@link BiFunction} defining how to generate a {@link Provider} from
-     *                        implementation {@link TypeData} and an (optional) annotation {@link Class}.
+     * @param providerBuilder {@link ProviderBuilder} defining how to generate a {@link Provider}
+     *                        from the binding key, implementation {@link TypeData} and an
+     *                        (optional) annotation {@link Class}.
      */
-    public Binding(TypeData<T> typeData,
-                   BiFunction<TypeData<? extends T>, Class<? extends Annotation>, Provider<T>> providerBuilder) {
+    public Binding(TypeData<T> typeData, ProviderBuilder<T> providerBuilder) {
         this.typeData = typeData;
         this.implementation = typeData;
         this.providerBuilder = providerBuilder;
@@ -92,7 +98,7 @@ public final class Binding<T> implements BindingConfig<T> {
     
     @Override
     public Binding<T> to(T instance) {
-        return to(new ProviderImpl<>(instance));
+        return to(new ConstantProvider<>(instance));
     }
     
     /**
@@ -104,13 +110,22 @@ public final class Binding<T> implements BindingConfig<T> {
         return new BindingKey<>(typeData, qualifier);
     }
     
+    /**
+     * Returns the implementation {@code TypeData}.
+     *
+     * @return Implementation {@link TypeData}, null if bound to a {@link Provider} or instance.
+     */
+    public TypeData<? extends T> implementation() {
+        return implementation;
+    }
+    
     /**
      * Returns the binding {@code Provider}.
      *
      * @return Binding {@link Provider}.
      */
     public Provider<T> provider() {
-        return provider != null ? provider : providerBuilder.apply(implementation, scope);
+        return provider != null ? provider : providerBuilder.build(key(), implementation, scope);
     }
     
 }
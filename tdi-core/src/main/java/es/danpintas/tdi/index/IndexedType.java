@@ -0,0 +1,154 @@
+package es.danpintas.tdi.index;
+
+import static es.danpintas.reflect.Types.forName;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+/**
+ * Injection points of a {@link Class}, as recorded by the {@link InjectionIndex} and resolved by
+ * name.
+ *
+ * @author danpintas
+ */
+public final class IndexedType {
+    
+    private final List<Constructor<?>> constructors = new ArrayList<>(1);
+    private final List<Field> fields = new ArrayList<>();
+    private final Map<String, List<Method>> methods = new HashMap<>();
+    private final List<Method> overrides = new ArrayList<>();
+    private final Set<String> scopes = new HashSet<>();
+    
+    private IndexedType() {
+    }
+    
+    static IndexedType resolve(Class<?> type, List<String[]> entry) {
+        ClassLoader loader = type.getClassLoader();
+        IndexedType indexed = new IndexedType();
+        boolean stamped = false;
+        try {
+            for (String[] tokens : entry) {
+                switch (tokens[0]) {
+                    case "stamp":
+                        // the class was compiled again without the processor
+                        if (Integer.parseInt(tokens[1]) != stamp(type))
+                            return null;
+                        stamped = true;
+                        break;
+                    case "scope":
+                        indexed.scopes.add(tokens[1]);
+                        break;
+                    case "constructor":
+                        indexed.constructors.add(type.getDeclaredConstructor(types(tokens, 1, loader)));
+                        break;
+                    case "field":
+                        indexed.fields.add(type.getDeclaredField(tokens[1]));
+                        break;
+                    case "method":
+                        indexed.methods.computeIfAbsent(tokens[1], a -> new ArrayList<>(1))
+                                .add(type.getDeclaredMethod(tokens[2], types(tokens, 3, loader)));
+                        break;
+                    case "override":
+                        indexed.overrides.add(type.getDeclaredMethod(tokens[1], types(tokens, 2, loader)));
+                        break;
+                    default:
+                        // unknown element, written by a newer processor
+                }
+            }
+            return stamped ? indexed : null;
+        } catch (ReflectiveOperationException | LinkageError | NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Computes the structural stamp of a class, as written by the processor: the sum of the
+     * {@link String#hashCode() hash codes} of {@code field <name>}, {@code method <name>
+     * <parameter count>} and {@code constructor} for every non synthetic declared member.
+     *
+     * @param type {@link Class} to stamp.
+     * @return Stamp of {@code type}.
+     */
+    static int stamp(Class<?> type) {
+        int stamp = 0;
+        for (Field field : type.getDeclaredFields())
+            if (!field.isSynthetic())
+                stamp += ("field " + field.getName()).hashCode();
+        for (Method method : type.getDeclaredMethods())
+            if (!method.isSynthetic())
+                stamp += ("method " + method.getName() + ' ' + method.getParameterCount())
+                        .hashCode();
+        for (Constructor<?> constructor : type.getDeclaredConstructors())
+            if (!constructor.isSynthetic())
+                stamp += "constructor".hashCode();
+        return stamp;
+    }
+    
+    private static Class<?>[] types(String[] tokens, int from, ClassLoader loader)
+            throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[tokens.length - from];
+        for (int i = 0; i < types.length; i++)
+            types[i] = forName(tokens[from + i], loader);
+        return types;
+    }
+    
+    /**
+     * Gets the {@code Inject} annotated constructors.
+     *
+     * @return Unmodifiable {@link List} with every {@link Inject} {@link Constructor}.
+     */
+    public List<Constructor<?>> getConstructors() {
+        return Collections.unmodifiableList(constructors);
+    }
+    
+    /**
+     * Gets the {@code Inject} annotated fields.
+     *
+     * @return Unmodifiable {@link List} with every {@link Inject} {@link Field}.
+     */
+    public List<Field> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+    
+    /**
+     * Gets the methods annotated with a given annotation.
+     *
+     * @param annotation {@code Inject}, {@code PostConstruct} or {@code PreDestroy}.
+     * @return Unmodifiable {@link List} with the annotated {@link Method} elements.
+     */
+    public List<Method> getMethods(Class<? extends Annotation> annotation) {
+        return Collections.unmodifiableList(
+                methods.getOrDefault(annotation.getName(), Collections.emptyList()));
+    }
+    
+    /**
+     * Gets the methods which, not being {@code Inject} annotated, override one which is.
+     *
+     * @return Unmodifiable {@link List} with the overriding {@link Method} elements.
+     */
+    public List<Method> getOverrides() {
+        return Collections.unmodifiableList(overrides);
+    }
+    
+    /**
+     * Declares if the class is annotated with a given scope annotation.
+     *
+     * @param scope Scope annotation.
+     * @return true if the class is annotated with {@code scope}, false otherwise.
+     */
+    public boolean isScoped(Class<? extends Annotation> scope) {
+        return scopes.contains(scope.getName());
+    }
+    
+}
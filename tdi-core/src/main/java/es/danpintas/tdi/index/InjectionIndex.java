@@ -0,0 +1,123 @@
+package es.danpintas.tdi.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Build-time index of the injection points of the classes visible to a {@link ClassLoader}, read
+ * from every {@value #RESOURCE} resource. <br/>
+ * The resource is written by the {@code tdi-processor} annotation processor. It is a UTF-8 text
+ * file with one line per element, each class starting with a {@code class} line:
+ * <pre>
+ * class      &lt;binary name&gt;
+ * stamp      &lt;structural stamp&gt;
+ * scope      &lt;scope annotation&gt;
+ * constructor [&lt;parameter types&gt;]
+ * field      &lt;name&gt;
+ * method     &lt;annotation&gt; &lt;name&gt; [&lt;parameter types&gt;]
+ * override   &lt;name&gt; [&lt;parameter types&gt;]
+ * </pre>
+ * Only the {@code Inject} constructors and fields are listed; methods are listed per annotation
+ * ({@code Inject}, {@code PostConstruct} and {@code PreDestroy}), and {@code override} lists the
+ * methods overriding an {@code Inject} method of a superclass. Types use {@link Class#getName()}.
+ * <br/>
+ * The {@code stamp} hashes the names of the declared members, so a class compiled again without
+ * the processor is resolved by reflection whenever it gained, lost or renamed a member. Entries
+ * without a stamp are ignored as well.
+ *
+ * @author danpintas
+ */
+public final class InjectionIndex {
+    
+    /**
+     * Index resource name.
+     */
+    public static final String RESOURCE = "META-INF/tdi/injection.index";
+    
+    private static final InjectionIndex EMPTY = new InjectionIndex(Collections.emptyMap());
+    private static final Map<ClassLoader, InjectionIndex> INDEXES = new WeakHashMap<>();
+    private static final ClassValue<IndexedType> TYPES = new ClassValue<IndexedType>() {
+        @Override
+        protected IndexedType computeValue(Class<?> type) {
+            return of(type.getClassLoader()).resolve(type);
+        }
+    };
+    
+    private final Map<String, List<String[]>> entries;
+    
+    private InjectionIndex(Map<String, List<String[]>> entries) {
+        this.entries = entries;
+    }
+    
+    /**
+     * Fetches the index of a given {@code ClassLoader}, reading it on first use.
+     *
+     * @param loader {@link ClassLoader} to read the index from.
+     * @return {@link InjectionIndex}, empty if there is no resource.
+     */
+    public static InjectionIndex of(ClassLoader loader) {
+        if (loader == null)
+            return EMPTY;
+        synchronized (INDEXES) {
+            return INDEXES.computeIfAbsent(loader, InjectionIndex::read);
+        }
+    }
+    
+    /**
+     * Looks up the indexed injection points of a given {@code Class}.
+     *
+     * @param type {@link Class} to look up.
+     * @return {@link IndexedType}, or null if the class is not indexed or the index is outdated.
+     */
+    public static IndexedType lookup(Class<?> type) {
+        return TYPES.get(type);
+    }
+    
+    private static InjectionIndex read(ClassLoader loader) {
+        try {
+            Map<String, List<String[]>> entries = new HashMap<>();
+            Enumeration<URL> resources = loader.getResources(RESOURCE);
+            while (resources.hasMoreElements())
+                read(resources.nextElement(), entries);
+            return entries.isEmpty() ? EMPTY : new InjectionIndex(entries);
+        } catch (IOException e) {
+            throw new InjectException(e);
+        }
+    }
+    
+    private static void read(URL resource, Map<String, List<String[]>> entries) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            List<String[]> entry = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] tokens = line.trim().split(" +");
+                if (tokens[0].isEmpty() || tokens[0].startsWith("#"))
+                    continue;
+                if ("class".equals(tokens[0])) {
+                    entry = new ArrayList<>();
+                    entries.putIfAbsent(tokens[1], entry);
+                } else if (entry != null) {
+                    entry.add(tokens);
+                }
+            }
+        }
+    }
+    
+    private IndexedType resolve(Class<?> type) {
+        List<String[]> entry = entries.get(type.getName());
+        return entry != null ? IndexedType.resolve(type, entry) : null;
+    }
+    
+}
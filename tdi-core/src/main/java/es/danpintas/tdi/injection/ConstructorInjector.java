@@ -7,6 +7,7 @@ import java.util.function.Function;
 import javax.inject.Provider;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.assisted.Assisted;
 import es.danpintas.tdi.exceptions.InjectException;
 import es.danpintas.tdi.keys.BindingKey;
 
@@ -46,4 +47,18 @@ public final class ConstructorInjector<T> extends ExecutableInjector {
         }
     }
     
+    /**
+     * Creates an instance calling the constructor with injected and assisted args.
+     *
+     * @param assisted Values for the {@link Assisted} parameters, in declaration order.
+     * @return new instance generated by calling the constructor.
+     */
+    public T inject(Object[] assisted) {
+        try {
+            return constructor.newInstance(injectArgs(assisted));
+        } catch (IllegalAccessException | InvocationTargetException | InstantiationException e) {
+            throw new InjectException(e);
+        }
+    }
+    
 }
@@ -1,5 +1,6 @@
 package es.danpintas.tdi.injection;
 
+import static es.danpintas.tdi.providers.Providers.flatten;
 import static es.danpintas.tdi.utils.TypeUtils.getQualifierAnnotation;
 
 import java.lang.annotation.Annotation;
@@ -9,13 +10,16 @@ import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
 import javax.inject.Provider;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.assisted.Assisted;
 import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.providers.ConstantProvider;
 
 /**
  * Abstract implementation for {@link Executable} ({@link Constructor} and {@link Method})
@@ -29,6 +33,8 @@ public abstract class ExecutableInjector {
     private final Function<BindingKey<?>, Provider<?>> fun;
     private final Executable executable;
     private Provider<?>[] providers;
+    private Object[] constants;
+    private int[] assisted;
     
     /**
      * Constructor.
@@ -53,8 +59,15 @@ public abstract class ExecutableInjector {
             Parameter[] parameters = executable.getParameters();
             List<TypeData> parameterTypes = typeData.getParameterTypes(executable);
             providers = new Provider<?>[parameters.length];
+            constants = new Object[parameters.length];
+            assisted = new int[parameters.length];
+            int assistedCount = 0;
             for (int i = 0; i < parameters.length; i++) {
                 Parameter parameter = parameters[i];
+                if (parameter.isAnnotationPresent(Assisted.class)) {
+                    assisted[assistedCount++] = i;
+                    continue;
+                }
                 TypeData<?> parameterType = parameterTypes.get(i);
                 Annotation qualifier = getQualifierAnnotation(parameter);
                 BindingKey<?> key;
@@ -65,18 +78,36 @@ public abstract class ExecutableInjector {
                     providers[i] = () -> fun.apply(key);
                 } else {
                     key = new BindingKey<>(parameterType, qualifier);
-                    providers[i] = fun.apply(key);
+                    Provider<?> provider = flatten(fun.apply(key));
+                    if (provider instanceof ConstantProvider)
+                        constants[i] = provider.get();
+                    else
+                        providers[i] = provider;
                 }
             }
+            assisted = Arrays.copyOf(assisted, assistedCount);
         }
     }
     
     protected Object[] injectArgs() {
-        Object[] args = new Object[providers.length];
+        Object[] args = constants.clone();
         for (int i = 0; i < providers.length; i++)
             if (providers[i] != null)
                 args[i] = providers[i].get();
         return args;
     }
     
+    /**
+     * Gets the args, taking the {@link Assisted} ones from the caller.
+     *
+     * @param assistedArgs Values for the {@link Assisted} parameters, in declaration order.
+     * @return Args to invoke the {@link Executable} with.
+     */
+    protected Object[] injectArgs(Object[] assistedArgs) {
+        Object[] args = injectArgs();
+        for (int i = 0; i < assistedArgs.length; i++)
+            args[assisted[i]] = assistedArgs[i];
+        return args;
+    }
+    
 }
@@ -1,5 +1,6 @@
 package es.danpintas.tdi.injection;
 
+import static es.danpintas.tdi.providers.Providers.flatten;
 import static es.danpintas.tdi.utils.TypeUtils.getQualifierAnnotation;
 
 import java.lang.annotation.Annotation;
@@ -13,6 +14,7 @@ import javax.inject.Provider;
 import es.danpintas.reflect.TypeData;
 import es.danpintas.tdi.exceptions.InjectException;
 import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.providers.ConstantProvider;
 
 /**
  * {@link Field} injector.
@@ -25,6 +27,8 @@ public final class FieldInjector implements MemberInjector {
     private final Function<BindingKey<?>, Provider<?>> fun;
     private final Field field;
     private Provider<?> provider;
+    private boolean inlined;
+    private Object constant;
     
     /**
      * Constructor.
@@ -44,7 +48,9 @@ public final class FieldInjector implements MemberInjector {
     @Override
     public void inject(Object instance) {
         try {
-            if (provider != null)
+            if (inlined)
+                field.set(instance, constant);
+            else if (provider != null)
                 field.set(instance, provider.get());
         } catch (IllegalAccessException e) {
             throw new InjectException(e);
@@ -53,7 +59,7 @@ public final class FieldInjector implements MemberInjector {
     
     @Override
     public void providerCheck() {
-        if (provider == null) {
+        if (provider == null && !inlined) {
             TypeData<?> fieldType = typeData.getFieldType(field);
             Annotation qualifier = getQualifierAnnotation(field);
             BindingKey<?> key;
@@ -64,7 +70,13 @@ public final class FieldInjector implements MemberInjector {
                 provider = () -> fun.apply(key);
             } else {
                 key = new BindingKey<>(fieldType, qualifier);
-                provider = fun.apply(key);
+                Provider<?> linked = flatten(fun.apply(key));
+                if (linked instanceof ConstantProvider) {
+                    constant = linked.get();
+                    inlined = true;
+                } else {
+                    provider = linked;
+                }
             }
         }
     }
@@ -0,0 +1,205 @@
+package es.danpintas.tdi.injection;
+
+import static es.danpintas.reflect.Types.getTypeHierarchy;
+import static es.danpintas.reflect.Types.isOverride;
+import static es.danpintas.tdi.utils.TypeUtils.getInjectCandidateMethods;
+import static es.danpintas.tdi.utils.TypeUtils.getInjectConstructor;
+import static es.danpintas.tdi.utils.TypeUtils.getInjectFields;
+import static es.danpintas.tdi.utils.TypeUtils.getPostConstructMethod;
+import static es.danpintas.tdi.utils.TypeUtils.getPreDestroyMethod;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Reflective analysis of an implementation {@link Class}: its constructor, the {@link Inject}
+ * members in injection order and its lifecycle methods. <br/>
+ * Does not depend on any binding, so it can be shared by every injector using the class.
+ *
+ * @author danpintas
+ */
+public final class InjectionPoints {
+    
+    private static final class Signature {
+        
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hashCode;
+        
+        private Signature(Method method) {
+            this.name = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+            this.hashCode = 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Signature))
+                return false;
+            Signature other = (Signature) obj;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+        
+    }
+    
+    private final Class<?> type;
+    private final Constructor<?> constructor;
+    private final List<Member> members;
+    private final Method postConstruct;
+    private final Method preDestroy;
+    
+    /**
+     * Constructor, for an already known analysis.
+     *
+     * @param type          Analysed {@link Class}.
+     * @param constructor   {@link Constructor} to inject.
+     * @param members       {@link Field} and {@link Method} members to inject, in injection order.
+     * @param postConstruct {@link PostConstruct} {@link Method}, null if none.
+     * @param preDestroy    {@link PreDestroy} {@link Method}, null if none.
+     */
+    public InjectionPoints(Class<?> type, Constructor<?> constructor, List<Member> members,
+                           Method postConstruct, Method preDestroy) {
+        this.type = type;
+        this.constructor = constructor;
+        this.members = Collections.unmodifiableList(members);
+        this.postConstruct = postConstruct;
+        this.preDestroy = preDestroy;
+        if (postConstruct != null)
+            postConstruct.setAccessible(true);
+        if (preDestroy != null)
+            preDestroy.setAccessible(true);
+    }
+    
+    /**
+     * Analyses the given {@code Class}.
+     *
+     * @param type {@link Class} to analyse.
+     * @return {@link InjectionPoints} for {@code type}.
+     */
+    public static InjectionPoints of(Class<?> type) {
+        List<Class<?>> typeHierarchy = getTypeHierarchy(type);
+        int hierarchySize = typeHierarchy.size();
+        List<List<Field>> tempFields = new ArrayList<>(hierarchySize);
+        List<List<Method>> tempMethods = new ArrayList<>(hierarchySize);
+        for (Class<?> subType : typeHierarchy) {
+            tempFields.add(getInjectFields(subType));
+            tempMethods.add(getInjectCandidateMethods(subType));
+        }
+        removeOverridden(tempMethods);
+        removeNotInject(tempMethods);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < hierarchySize; i++) {
+            members.addAll(tempFields.get(i));
+            members.addAll(tempMethods.get(i));
+        }
+        return new InjectionPoints(type, initConstructor(type), members,
+                getPostConstructMethod(type), getPreDestroyMethod(type));
+    }
+    
+    private static Constructor<?> initConstructor(Class<?> type) {
+        try {
+            Constructor<?> c = getInjectConstructor(type);
+            return c != null ? c : type.getDeclaredConstructor();
+        } catch (NoSuchMethodException t) {
+            throw new InjectException(t);
+        }
+    }
+    
+    /**
+     * Removes the overridden methods, walking the hierarchy from the most specific type and
+     * comparing each method only with the retained ones sharing its signature.
+     */
+    private static void removeOverridden(List<List<Method>> tempMethods) {
+        Map<Signature, List<Method>> included = new HashMap<>();
+        for (int i = tempMethods.size() - 1; i >= 0; i--) {
+            for (Iterator<Method> iterator = tempMethods.get(i).iterator(); iterator.hasNext(); ) {
+                Method method = iterator.next();
+                List<Method> candidates =
+                        included.computeIfAbsent(new Signature(method), s -> new ArrayList<>(1));
+                if (isOverridden(method, candidates))
+                    iterator.remove();
+                else
+                    candidates.add(method);
+            }
+        }
+    }
+    
+    private static boolean isOverridden(Method method, List<Method> candidates) {
+        for (Method sub : candidates)
+            if (isOverride(method, sub))
+                return true;
+        return false;
+    }
+    
+    private static void removeNotInject(List<List<Method>> tempMethods) {
+        for (List<Method> subList : tempMethods)
+            subList.removeIf(method -> method.getAnnotation(Inject.class) == null);
+    }
+    
+    /**
+     * Gets the analysed class.
+     *
+     * @return Analysed {@link Class}.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+    
+    /**
+     * Gets the constructor to inject.
+     *
+     * @return {@link Inject} annotated {@link Constructor}, or the no-args one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Constructor<T> getConstructor() {
+        return (Constructor<T>) constructor;
+    }
+    
+    /**
+     * Gets the members to inject, supertypes first and fields before methods.
+     *
+     * @return Unmodifiable {@link List} with every {@link Inject} {@link Field} and {@link Method}.
+     */
+    public List<Member> getMembers() {
+        return members;
+    }
+    
+    /**
+     * Gets the post construct method.
+     *
+     * @return {@link PostConstruct} {@link Method}, null if none.
+     */
+    public Method getPostConstruct() {
+        return postConstruct;
+    }
+    
+    /**
+     * Gets the pre destroy method.
+     *
+     * @return {@link PreDestroy} {@link Method}, null if none.
+     */
+    public Method getPreDestroy() {
+        return preDestroy;
+    }
+    
+}
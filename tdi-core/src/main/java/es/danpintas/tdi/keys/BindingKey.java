@@ -22,4 +22,27 @@ public final class BindingKey<T> extends AbstractKey<TypeData<T>, Annotation> {
         super(typeData, annotation);
     }
     
+    /**
+     * Gets the bound type.
+     *
+     * @return {@link TypeData} for the binding class.
+     */
+    public TypeData<T> getTypeData() {
+        return a;
+    }
+    
+    /**
+     * Gets the qualifier.
+     *
+     * @return Qualifier {@link Annotation}, null if unqualified.
+     */
+    public Annotation getQualifier() {
+        return b;
+    }
+    
+    @Override
+    public String toString() {
+        return b == null ? a.toString() : a + " " + b;
+    }
+    
 }
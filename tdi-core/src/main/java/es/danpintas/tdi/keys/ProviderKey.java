@@ -12,6 +12,8 @@ import es.danpintas.reflect.TypeData;
  */
 public final class ProviderKey<T> extends AbstractKey<TypeData<T>, Class<? extends Annotation>> {
     
+    private final BindingKey<?> binding;
+    
     /**
      * Constructor.
      *
@@ -19,7 +21,54 @@ public final class ProviderKey<T> extends AbstractKey<TypeData<T>, Class<? exten
      * @param scope    Scope {@link Annotation}.
      */
     public ProviderKey(TypeData<T> typeData, Class<? extends Annotation> scope) {
+        this(typeData, scope, null);
+    }
+    
+    /**
+     * Constructor.
+     *
+     * @param typeData {@link TypeData} for the provider.
+     * @param scope    Scope {@link Annotation}.
+     * @param binding  {@link BindingKey} the provider is built for, not part of the key identity.
+     */
+    public ProviderKey(TypeData<T> typeData, Class<? extends Annotation> scope,
+                       BindingKey<?> binding) {
         super(typeData, scope);
+        this.binding = binding;
+    }
+    
+    /**
+     * Gets the provided type.
+     *
+     * @return {@link TypeData} for the provider.
+     */
+    public TypeData<T> getTypeData() {
+        return a;
+    }
+    
+    /**
+     * Gets the scope.
+     *
+     * @return Scope {@link Annotation} {@link Class}, null for prototypes.
+     */
+    public Class<? extends Annotation> getScope() {
+        return b;
+    }
+    
+    /**
+     * Gets the binding the provider was built for. <br/>
+     * Providers are shared by every binding to the same implementation and scope, so this is the
+     * first of them.
+     *
+     * @return {@link BindingKey}, null if the provider was not built for a binding.
+     */
+    public BindingKey<?> getBinding() {
+        return binding;
+    }
+    
+    @Override
+    public String toString() {
+        return b == null ? a.toString() : a + " @" + b.getSimpleName();
     }
     
 }
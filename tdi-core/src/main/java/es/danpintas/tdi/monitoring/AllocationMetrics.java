@@ -0,0 +1,130 @@
+package es.danpintas.tdi.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+import com.sun.management.ThreadMXBean;
+
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * {@link ProvisionListener} attributing the bytes allocated by each
+ * {@link ProvisionStage#PROVISION} to its provider, using the per-thread allocation counter of
+ * {@link ThreadMXBean}. <br/>
+ * Inclusive bytes count the whole provisioning subtree, while exclusive bytes leave out the nested
+ * provisions, which are attributed to their own providers.
+ *
+ * @author danpintas
+ */
+public class AllocationMetrics implements ProvisionListener, AllocationMetricsMXBean {
+    
+    private static final class Frames {
+        
+        private long[] start = new long[16];
+        private long[] nested = new long[16];
+        private int depth;
+        
+        private void push(long bytes) {
+            if (depth == start.length) {
+                start = Arrays.copyOf(start, depth * 2);
+                nested = Arrays.copyOf(nested, depth * 2);
+            }
+            start[depth] = bytes;
+            nested[depth++] = 0;
+        }
+        
+    }
+    
+    private final ThreadMXBean threads;
+    private final ConcurrentMap<ProviderKey<?>, AllocationStatistics> statistics =
+            new ConcurrentHashMap<>();
+    private final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+    
+    /**
+     * Constructor, enabling thread allocation measurement in the JVM.
+     *
+     * @throws UnsupportedOperationException if the JVM does not measure thread allocations.
+     */
+    public AllocationMetrics() {
+        this(ManagementFactory.getThreadMXBean());
+    }
+    
+    AllocationMetrics(java.lang.management.ThreadMXBean bean) {
+        if (!(bean instanceof ThreadMXBean)
+                || !((ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+            throw new UnsupportedOperationException("Thread allocated memory is not supported");
+        threads = (ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    
+    @Override
+    public void started(ProvisionStage stage, ProviderKey<?> key) {
+        if (stage == ProvisionStage.PROVISION)
+            frames.get().push(allocatedBytes());
+    }
+    
+    @Override
+    public void finished(ProvisionStage stage, ProviderKey<?> key) {
+        if (stage != ProvisionStage.PROVISION)
+            return;
+        long now = allocatedBytes();
+        Frames f = frames.get();
+        int depth = --f.depth;
+        long inclusive = now - f.start[depth];
+        if (depth > 0)
+            f.nested[depth - 1] += inclusive;
+        AllocationStatistics stats = statistics.get(key);
+        if (stats == null)
+            stats = statistics.computeIfAbsent(key, k -> new AllocationStatistics());
+        stats.record(inclusive, inclusive - f.nested[depth]);
+    }
+    
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    /**
+     * Gets the statistics for a given provider.
+     *
+     * @param key {@link ProviderKey} to look for.
+     * @return {@link AllocationStatistics}, or null if nothing was recorded yet.
+     */
+    public AllocationStatistics getStatistics(ProviderKey<?> key) {
+        return statistics.get(key);
+    }
+    
+    @Override
+    public Map<String, Long> getProvisions() {
+        return collect(AllocationStatistics::getCount);
+    }
+    
+    @Override
+    public Map<String, Long> getInclusiveBytes() {
+        return collect(AllocationStatistics::getInclusiveBytes);
+    }
+    
+    @Override
+    public Map<String, Long> getExclusiveBytes() {
+        return collect(AllocationStatistics::getExclusiveBytes);
+    }
+    
+    private Map<String, Long> collect(ToLongFunction<AllocationStatistics> value) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Entry<ProviderKey<?>, AllocationStatistics> entry : statistics.entrySet())
+            result.put(entry.getKey().toString(), value.applyAsLong(entry.getValue()));
+        return result;
+    }
+    
+    @Override
+    public void reset() {
+        for (AllocationStatistics stats : statistics.values())
+            stats.reset();
+    }
+    
+}
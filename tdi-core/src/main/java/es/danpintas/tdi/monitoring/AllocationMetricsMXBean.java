@@ -0,0 +1,38 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link AllocationMetrics}. All maps are keyed by implementation type and scope.
+ *
+ * @author danpintas
+ */
+public interface AllocationMetricsMXBean {
+    
+    /**
+     * Gets the number of measured provisions.
+     *
+     * @return {@link Map} with the provision count per provider.
+     */
+    Map<String, Long> getProvisions();
+    
+    /**
+     * Gets the bytes allocated while provisioning, nested provisions included.
+     *
+     * @return {@link Map} with the inclusive allocated bytes per provider.
+     */
+    Map<String, Long> getInclusiveBytes();
+    
+    /**
+     * Gets the bytes allocated while provisioning, nested provisions excluded.
+     *
+     * @return {@link Map} with the exclusive allocated bytes per provider.
+     */
+    Map<String, Long> getExclusiveBytes();
+    
+    /**
+     * Clears all the recorded metrics.
+     */
+    void reset();
+    
+}
@@ -0,0 +1,55 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allocated bytes attributed to a provider by {@link AllocationMetrics}.
+ *
+ * @author danpintas
+ */
+public final class AllocationStatistics {
+    
+    private final LongAdder count = new LongAdder();
+    private final LongAdder inclusive = new LongAdder();
+    private final LongAdder exclusive = new LongAdder();
+    
+    void record(long inclusiveBytes, long exclusiveBytes) {
+        count.increment();
+        inclusive.add(inclusiveBytes);
+        exclusive.add(exclusiveBytes);
+    }
+    
+    void reset() {
+        count.reset();
+        inclusive.reset();
+        exclusive.reset();
+    }
+    
+    /**
+     * Gets the number of measured provisions.
+     *
+     * @return Provision count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Gets the bytes allocated while provisioning, nested provisions included.
+     *
+     * @return Inclusive allocated bytes.
+     */
+    public long getInclusiveBytes() {
+        return inclusive.sum();
+    }
+    
+    /**
+     * Gets the bytes allocated while provisioning, nested provisions excluded.
+     *
+     * @return Exclusive allocated bytes.
+     */
+    public long getExclusiveBytes() {
+        return exclusive.sum();
+    }
+    
+}
@@ -0,0 +1,37 @@
+package es.danpintas.tdi.monitoring;
+
+import es.danpintas.tdi.Module;
+
+/**
+ * Phases of an injector build reported to a {@link ProvisionListener}.
+ *
+ * @author danpintas
+ */
+public enum BuildPhase {
+    
+    /**
+     * {@link Module} installation.
+     */
+    INSTALL,
+    
+    /**
+     * Provider creation for the declared bindings, including implementation analysis.
+     */
+    BINDINGS,
+    
+    /**
+     * Dependency resolution of the analysed implementations.
+     */
+    LINKING,
+    
+    /**
+     * Static member injection.
+     */
+    STATIC_INJECTION,
+    
+    /**
+     * Warmup of the provisioning paths, requested after the build.
+     */
+    WARMUP
+    
+}
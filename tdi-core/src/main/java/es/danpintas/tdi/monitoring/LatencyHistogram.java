@@ -0,0 +1,67 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two buckets. <br/>
+ * Bucket {@code i} counts the samples in the {@code [2^i, 2^(i+1))} nanosecond range.
+ *
+ * @author danpintas
+ */
+public final class LatencyHistogram {
+    
+    private static final int BUCKETS = 64;
+    
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    
+    /**
+     * Records a sample.
+     *
+     * @param nanos Sample duration, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value | 1));
+    }
+    
+    /**
+     * Gets the number of recorded samples.
+     *
+     * @return Recorded sample count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Gets an immutable view of the current values.
+     *
+     * @return {@link LatencySummary} for this histogram.
+     */
+    public LatencySummary summary() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            snapshot[i] = buckets.get(i);
+        return new LatencySummary(count.sum(), total.sum(), max.get(), snapshot);
+    }
+    
+    /**
+     * Clears all the recorded samples.
+     */
+    public void reset() {
+        count.reset();
+        total.reset();
+        max.reset();
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+    }
+    
+}
@@ -0,0 +1,111 @@
+package es.danpintas.tdi.monitoring;
+
+/**
+ * Immutable view of a {@link LatencyHistogram}. <br/>
+ * Percentiles are approximated by the upper bound of the bucket they fall in.
+ *
+ * @author danpintas
+ */
+public final class LatencySummary {
+    
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+    
+    /**
+     * Constructor.
+     *
+     * @param count      Sample count.
+     * @param totalNanos Sum of all the samples, in nanoseconds.
+     * @param maxNanos   Highest sample, in nanoseconds.
+     * @param buckets    Sample count for each power of two bucket.
+     */
+    public LatencySummary(long count, long totalNanos, long maxNanos, long[] buckets) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets.clone();
+    }
+    
+    /**
+     * Gets the number of samples.
+     *
+     * @return Sample count.
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Gets the sum of all the samples.
+     *
+     * @return Total, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    /**
+     * Gets the highest sample.
+     *
+     * @return Maximum, in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    /**
+     * Gets the mean of the samples.
+     *
+     * @return Mean, in nanoseconds.
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+    
+    /**
+     * Gets the approximated median.
+     *
+     * @return 50th percentile, in nanoseconds.
+     */
+    public long getP50Nanos() {
+        return percentile(0.5);
+    }
+    
+    /**
+     * Gets the approximated 99th percentile.
+     *
+     * @return 99th percentile, in nanoseconds.
+     */
+    public long getP99Nanos() {
+        return percentile(0.99);
+    }
+    
+    /**
+     * Gets the sample count for each power of two bucket.
+     *
+     * @return Bucket counts, lowest first.
+     */
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+    
+    private long percentile(double fraction) {
+        long threshold = (long) Math.ceil(count * fraction);
+        long accumulated = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            accumulated += buckets[i];
+            if (accumulated >= threshold && accumulated > 0)
+                return Math.min(i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, maxNanos);
+        }
+        return 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "LatencySummary [count=" + count + ", mean=" + getMeanNanos() + "ns, p50="
+                + getP50Nanos() + "ns, p99=" + getP99Nanos() + "ns, max=" + maxNanos + "ns]";
+    }
+    
+}
@@ -0,0 +1,58 @@
+package es.danpintas.tdi.monitoring;
+
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * Contract for observing the provisioning path of an injector. <br/>
+ * Calls are nested: every {@link #started} is paired with a {@link #finished} on the same thread,
+ * even if the stage fails.
+ *
+ * @author danpintas
+ */
+public interface ProvisionListener {
+    
+    /**
+     * Notifies the start of a provisioning stage.
+     *
+     * @param stage {@link ProvisionStage} starting.
+     * @param key   {@link ProviderKey} being provisioned, with its implementation and scope.
+     */
+    void started(ProvisionStage stage, ProviderKey<?> key);
+    
+    /**
+     * Notifies the end of a provisioning stage.
+     *
+     * @param stage {@link ProvisionStage} finishing.
+     * @param key   {@link ProviderKey} being provisioned, with its implementation and scope.
+     */
+    void finished(ProvisionStage stage, ProviderKey<?> key);
+    
+    /**
+     * Notifies that a scope rebuilt an instance it had lost, such as one cleared by the garbage
+     * collector. The new instance is reported through the usual stages as well.
+     *
+     * @param key {@link ProviderKey} of the rebuilt instance, with its implementation and scope.
+     */
+    default void rebuilt(ProviderKey<?> key) {
+        // not observed by default
+    }
+    
+    /**
+     * Notifies the start of an injector build phase.
+     *
+     * @param phase {@link BuildPhase} starting.
+     */
+    default void buildStarted(BuildPhase phase) {
+        // not observed by default
+    }
+    
+    /**
+     * Notifies the end of an injector build phase.
+     *
+     * @param phase {@link BuildPhase} finishing.
+     */
+    default void buildFinished(BuildPhase phase) {
+        // not observed by default
+    }
+    
+}
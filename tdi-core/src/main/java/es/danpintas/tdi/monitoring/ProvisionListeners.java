@@ -0,0 +1,74 @@
+package es.danpintas.tdi.monitoring;
+
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * {@link ProvisionListener} related utilities.
+ *
+ * @author danpintas
+ */
+public final class ProvisionListeners {
+    
+    private static final class Composite implements ProvisionListener {
+        
+        private final ProvisionListener[] listeners;
+        
+        private Composite(ProvisionListener[] listeners) {
+            this.listeners = listeners;
+        }
+        
+        @Override
+        public void started(ProvisionStage stage, ProviderKey<?> key) {
+            for (ProvisionListener listener : listeners)
+                listener.started(stage, key);
+        }
+        
+        @Override
+        public void finished(ProvisionStage stage, ProviderKey<?> key) {
+            for (int i = listeners.length - 1; i >= 0; i--)
+                listeners[i].finished(stage, key);
+        }
+        
+        @Override
+        public void rebuilt(ProviderKey<?> key) {
+            for (ProvisionListener listener : listeners)
+                listener.rebuilt(key);
+        }
+        
+        @Override
+        public void buildStarted(BuildPhase phase) {
+            for (ProvisionListener listener : listeners)
+                listener.buildStarted(phase);
+        }
+        
+        @Override
+        public void buildFinished(BuildPhase phase) {
+            for (int i = listeners.length - 1; i >= 0; i--)
+                listeners[i].buildFinished(phase);
+        }
+        
+    }
+    
+    private ProvisionListeners() {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Combines the given listeners into one. <br/>
+     * Returns null when there are none, so callers can skip notification altogether.
+     *
+     * @param listeners {@link ProvisionListener} array to combine.
+     * @return Combined {@link ProvisionListener}, or null if {@code listeners} is empty.
+     */
+    public static ProvisionListener of(ProvisionListener... listeners) {
+        switch (listeners.length) {
+            case 0:
+                return null;
+            case 1:
+                return listeners[0];
+            default:
+                return new Composite(listeners.clone());
+        }
+    }
+    
+}
@@ -0,0 +1,137 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * {@link ProvisionListener} aggregating instance counts, rebuild counts and latency histograms per
+ * provider, this is, per implementation type and scope. <br/>
+ * Injectors register it as an MBean when returned by their provision listeners.
+ *
+ * @author danpintas
+ */
+public class ProvisionMetrics implements ProvisionListener, ProvisionMetricsMXBean {
+    
+    private static final class StartTimes {
+        
+        private long[] stack = new long[16];
+        private int depth;
+        
+        private void push(long time) {
+            if (depth == stack.length)
+                stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = time;
+        }
+        
+        private long pop() {
+            return stack[--depth];
+        }
+        
+    }
+    
+    private final Map<ProvisionStage, ConcurrentMap<ProviderKey<?>, LatencyHistogram>> histograms =
+            new EnumMap<>(ProvisionStage.class);
+    private final ConcurrentMap<ProviderKey<?>, LongAdder> rebuilds = new ConcurrentHashMap<>();
+    private final ThreadLocal<StartTimes> startTimes = ThreadLocal.withInitial(StartTimes::new);
+    
+    /**
+     * Constructor.
+     */
+    public ProvisionMetrics() {
+        for (ProvisionStage stage : ProvisionStage.values())
+            histograms.put(stage, new ConcurrentHashMap<>());
+    }
+    
+    @Override
+    public void started(ProvisionStage stage, ProviderKey<?> key) {
+        startTimes.get().push(System.nanoTime());
+    }
+    
+    @Override
+    public void finished(ProvisionStage stage, ProviderKey<?> key) {
+        long elapsed = System.nanoTime() - startTimes.get().pop();
+        ConcurrentMap<ProviderKey<?>, LatencyHistogram> map = histograms.get(stage);
+        LatencyHistogram histogram = map.get(key);
+        if (histogram == null)
+            histogram = map.computeIfAbsent(key, k -> new LatencyHistogram());
+        histogram.record(elapsed);
+    }
+    
+    @Override
+    public void rebuilt(ProviderKey<?> key) {
+        rebuilds.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Gets the histogram for a given stage and provider.
+     *
+     * @param stage {@link ProvisionStage} to look for.
+     * @param key   {@link ProviderKey} to look for.
+     * @return {@link LatencyHistogram}, or null if nothing was recorded yet.
+     */
+    public LatencyHistogram getHistogram(ProvisionStage stage, ProviderKey<?> key) {
+        return histograms.get(stage).get(key);
+    }
+    
+    @Override
+    public Map<String, Long> getInstancesCreated() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Entry<ProviderKey<?>, LatencyHistogram> entry : histograms.get(ProvisionStage.PROVISION)
+                .entrySet())
+            result.put(entry.getKey().toString(), entry.getValue().getCount());
+        return result;
+    }
+    
+    @Override
+    public Map<String, Long> getRebuilds() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Entry<ProviderKey<?>, LongAdder> entry : rebuilds.entrySet())
+            result.put(entry.getKey().toString(), entry.getValue().sum());
+        return result;
+    }
+    
+    @Override
+    public Map<String, LatencySummary> getProvisionLatencies() {
+        return summaries(ProvisionStage.PROVISION);
+    }
+    
+    @Override
+    public Map<String, LatencySummary> getScopedLatencies() {
+        return summaries(ProvisionStage.SCOPED);
+    }
+    
+    @Override
+    public Map<String, LatencySummary> getPostConstructLatencies() {
+        return summaries(ProvisionStage.POST_CONSTRUCT);
+    }
+    
+    @Override
+    public Map<String, LatencySummary> getPreDestroyLatencies() {
+        return summaries(ProvisionStage.PRE_DESTROY);
+    }
+    
+    private Map<String, LatencySummary> summaries(ProvisionStage stage) {
+        Map<String, LatencySummary> result = new TreeMap<>();
+        for (Entry<ProviderKey<?>, LatencyHistogram> entry : histograms.get(stage).entrySet())
+            result.put(entry.getKey().toString(), entry.getValue().summary());
+        return result;
+    }
+    
+    @Override
+    public void reset() {
+        for (ConcurrentMap<ProviderKey<?>, LatencyHistogram> map : histograms.values())
+            for (LatencyHistogram histogram : map.values())
+                histogram.reset();
+        for (LongAdder counter : rebuilds.values())
+            counter.reset();
+    }
+    
+}
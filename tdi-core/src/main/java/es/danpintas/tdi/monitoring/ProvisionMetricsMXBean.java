@@ -0,0 +1,60 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ProvisionMetrics}. All maps are keyed by implementation type and scope.
+ *
+ * @author danpintas
+ */
+public interface ProvisionMetricsMXBean {
+    
+    /**
+     * Gets the number of instances created for each implementation.
+     *
+     * @return {@link Map} with the instance count per provider.
+     */
+    Map<String, Long> getInstancesCreated();
+    
+    /**
+     * Gets the number of instances rebuilt by their scope after losing them, for each
+     * implementation.
+     *
+     * @return {@link Map} with the rebuild count per provider.
+     */
+    Map<String, Long> getRebuilds();
+    
+    /**
+     * Gets the {@link ProvisionStage#PROVISION} latencies.
+     *
+     * @return {@link Map} with the {@link LatencySummary} per provider.
+     */
+    Map<String, LatencySummary> getProvisionLatencies();
+    
+    /**
+     * Gets the {@link ProvisionStage#SCOPED} (e.g. singleton creation) latencies.
+     *
+     * @return {@link Map} with the {@link LatencySummary} per provider.
+     */
+    Map<String, LatencySummary> getScopedLatencies();
+    
+    /**
+     * Gets the {@link ProvisionStage#POST_CONSTRUCT} latencies.
+     *
+     * @return {@link Map} with the {@link LatencySummary} per provider.
+     */
+    Map<String, LatencySummary> getPostConstructLatencies();
+    
+    /**
+     * Gets the {@link ProvisionStage#PRE_DESTROY} latencies.
+     *
+     * @return {@link Map} with the {@link LatencySummary} per provider.
+     */
+    Map<String, LatencySummary> getPreDestroyLatencies();
+    
+    /**
+     * Clears all the recorded metrics.
+     */
+    void reset();
+    
+}
@@ -0,0 +1,37 @@
+package es.danpintas.tdi.monitoring;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+
+import es.danpintas.tdi.providers.InstanceProvider;
+
+/**
+ * Steps of the provisioning path reported to a {@link ProvisionListener}.
+ *
+ * @author danpintas
+ */
+public enum ProvisionStage {
+    
+    /**
+     * {@link InstanceProvider#get()}: construction, member injection and {@link PostConstruct} of a
+     * new instance.
+     */
+    PROVISION,
+    
+    /**
+     * Creation of an instance to be cached by a scope, such as {@link Singleton}.
+     */
+    SCOPED,
+    
+    /**
+     * {@link PostConstruct} method execution.
+     */
+    POST_CONSTRUCT,
+    
+    /**
+     * {@link PreDestroy} method execution.
+     */
+    PRE_DESTROY
+    
+}
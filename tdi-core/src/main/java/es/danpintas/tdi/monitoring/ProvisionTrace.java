@@ -0,0 +1,179 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * Node of a sampled provisioning tree recorded by a {@link ProvisionTracer}. <br/>
+ * Nodes are named after the binding key that built their provider, which is the first one when
+ * several bindings share an implementation and scope.
+ *
+ * @author danpintas
+ */
+public final class ProvisionTrace {
+    
+    private final ProvisionTrace parent;
+    private final ProvisionStage stage;
+    private final ProviderKey<?> key;
+    private final BindingKey<?> binding;
+    private final long start;
+    private final List<ProvisionTrace> children = new ArrayList<>(2);
+    private long end;
+    
+    ProvisionTrace(ProvisionTrace parent, ProvisionStage stage, ProviderKey<?> key, long start) {
+        this.parent = parent;
+        this.stage = stage;
+        this.key = key;
+        this.binding = key.getBinding() != null ? key.getBinding()
+                : new BindingKey<>(key.getTypeData(), null);
+        this.start = start;
+        if (parent != null)
+            parent.children.add(this);
+    }
+    
+    void finish(long time) {
+        this.end = time;
+    }
+    
+    ProvisionTrace getParent() {
+        return parent;
+    }
+    
+    /**
+     * Gets the traced stage.
+     *
+     * @return {@link ProvisionStage} of this node.
+     */
+    public ProvisionStage getStage() {
+        return stage;
+    }
+    
+    /**
+     * Gets the provisioned key.
+     *
+     * @return {@link ProviderKey} of this node, with the implementation and its scope.
+     */
+    public ProviderKey<?> getKey() {
+        return key;
+    }
+    
+    /**
+     * Gets the binding key the provisioned implementation is bound to.
+     *
+     * @return {@link BindingKey} of this node.
+     */
+    public BindingKey<?> getBinding() {
+        return binding;
+    }
+    
+    /**
+     * Gets the nested steps.
+     *
+     * @return Unmodifiable {@link List} with the child nodes, in call order.
+     */
+    public List<ProvisionTrace> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+    
+    /**
+     * Gets the time spent in this step, nested steps included.
+     *
+     * @return Inclusive time, in nanoseconds.
+     */
+    public long getInclusiveNanos() {
+        return end - start;
+    }
+    
+    /**
+     * Gets the time spent in this step, nested steps excluded.
+     *
+     * @return Exclusive time, in nanoseconds.
+     */
+    public long getExclusiveNanos() {
+        long exclusive = getInclusiveNanos();
+        for (ProvisionTrace child : children)
+            exclusive -= child.getInclusiveNanos();
+        return exclusive;
+    }
+    
+    /**
+     * Gets the number of instances created by this step, nested steps included. <br/>
+     * This counts objects, not bytes: {@link AllocationMetrics} measures the allocated bytes.
+     *
+     * @return {@link ProvisionStage#PROVISION} count in this subtree.
+     */
+    public int getProvisions() {
+        int provisions = stage == ProvisionStage.PROVISION ? 1 : 0;
+        for (ProvisionTrace child : children)
+            provisions += child.getProvisions();
+        return provisions;
+    }
+    
+    /**
+     * Gets this subtree as JSON.
+     *
+     * @return JSON object {@link String}.
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        appendJson(builder);
+        return builder.toString();
+    }
+    
+    void appendJson(StringBuilder builder) {
+        builder.append("{\"key\":\"").append(escape(binding.toString()))
+                .append("\",\"implementation\":\"").append(escape(key.getTypeData().toString()))
+                .append("\",\"scope\":")
+                .append(key.getScope() != null ? '"' + escape(key.getScope().getName()) + '"'
+                        : "null")
+                .append(",\"stage\":\"").append(stage)
+                .append("\",\"inclusiveNanos\":").append(getInclusiveNanos())
+                .append(",\"exclusiveNanos\":").append(getExclusiveNanos())
+                .append(",\"provisions\":").append(getProvisions())
+                .append(",\"children\":[");
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0)
+                builder.append(',');
+            children.get(i).appendJson(builder);
+        }
+        builder.append("]}");
+    }
+    
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                escaped.append('\\').append(c);
+            else if (c < 0x20)
+                escaped.append(String.format("\\u%04x", (int) c));
+            else
+                escaped.append(c);
+        }
+        return escaped.toString();
+    }
+    
+    void collapse(String path, Map<String, Long> stacks) {
+        String frame = path.isEmpty() ? frame() : path + ';' + frame();
+        stacks.merge(frame, getExclusiveNanos(), Long::sum);
+        for (ProvisionTrace child : children)
+            child.collapse(frame, stacks);
+    }
+    
+    private String frame() {
+        // semicolons separate frames and line breaks separate stacks
+        String frame = binding.toString().replace(';', ',').replace('\n', ' ').replace('\r', ' ');
+        return stage == ProvisionStage.PROVISION ? frame : frame + " [" + stage + "]";
+    }
+    
+    @Override
+    public String toString() {
+        return stage + " " + binding + " " + getInclusiveNanos() + "ns";
+    }
+    
+}
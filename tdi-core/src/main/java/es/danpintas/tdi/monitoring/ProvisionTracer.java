@@ -0,0 +1,135 @@
+package es.danpintas.tdi.monitoring;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import es.danpintas.reflect.Validations;
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * {@link ProvisionListener} recording the provisioning tree of a sampled fraction of the top level
+ * requests. <br/>
+ * Only the latest traces are kept, up to the configured capacity. Unsampled requests just update a
+ * per-thread depth counter. <br/>
+ * Traces follow the requesting thread: the instances a parallel batch creates on the fork-join
+ * pool are not part of the request tree, and each one is sampled as a top level request of its
+ * worker thread instead.
+ *
+ * @author danpintas
+ */
+public class ProvisionTracer implements ProvisionListener {
+    
+    private static final class ThreadState {
+        
+        private int depth;
+        private boolean sampled;
+        private ProvisionTrace current;
+        
+    }
+    
+    private final double sampleRate;
+    private final int capacity;
+    private final Deque<ProvisionTrace> traces = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ThreadLocal<ThreadState> states = ThreadLocal.withInitial(ThreadState::new);
+    
+    /**
+     * Constructor.
+     *
+     * @param sampleRate Fraction of the top level requests to trace, from 0 to 1.
+     * @param capacity   Maximum number of traces to keep.
+     */
+    public ProvisionTracer(double sampleRate, int capacity) {
+        Validations.checkArgument(sampleRate >= 0 && sampleRate <= 1,
+                "Sample rate %s is not between 0 and 1", sampleRate);
+        Validations.checkArgument(capacity > 0, "Capacity %s is not positive", capacity);
+        this.sampleRate = sampleRate;
+        this.capacity = capacity;
+    }
+    
+    @Override
+    public void started(ProvisionStage stage, ProviderKey<?> key) {
+        ThreadState state = states.get();
+        if (state.depth++ == 0)
+            state.sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (state.sampled)
+            state.current = new ProvisionTrace(state.current, stage, key, System.nanoTime());
+    }
+    
+    @Override
+    public void finished(ProvisionStage stage, ProviderKey<?> key) {
+        ThreadState state = states.get();
+        state.depth--;
+        if (state.sampled) {
+            ProvisionTrace trace = state.current;
+            trace.finish(System.nanoTime());
+            state.current = trace.getParent();
+            if (state.current == null)
+                publish(trace);
+        }
+    }
+    
+    private void publish(ProvisionTrace trace) {
+        traces.addLast(trace);
+        if (size.incrementAndGet() > capacity && traces.pollFirst() != null)
+            size.decrementAndGet();
+    }
+    
+    /**
+     * Gets the kept traces.
+     *
+     * @return {@link List} with the root {@link ProvisionTrace} of each sampled request, oldest first.
+     */
+    public List<ProvisionTrace> getTraces() {
+        return new ArrayList<>(traces);
+    }
+    
+    /**
+     * Discards the kept traces.
+     */
+    public void clear() {
+        while (traces.pollFirst() != null)
+            size.decrementAndGet();
+    }
+    
+    /**
+     * Exports the kept traces as JSON.
+     *
+     * @return JSON array {@link String}, with one tree per sampled request.
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("[");
+        boolean first = true;
+        for (ProvisionTrace trace : traces) {
+            if (!first)
+                builder.append(',');
+            trace.appendJson(builder);
+            first = false;
+        }
+        return builder.append(']').toString();
+    }
+    
+    /**
+     * Exports the kept traces in the collapsed stacks format used by flame graph tools. <br/>
+     * Each line holds a semicolon separated stack and its exclusive time, in nanoseconds.
+     *
+     * @return Collapsed stacks {@link String}.
+     */
+    public String toCollapsedStacks() {
+        Map<String, Long> stacks = new TreeMap<>();
+        for (ProvisionTrace trace : traces)
+            trace.collapse("", stacks);
+        StringBuilder builder = new StringBuilder();
+        for (Entry<String, Long> entry : stacks.entrySet())
+            builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        return builder.toString();
+    }
+    
+}
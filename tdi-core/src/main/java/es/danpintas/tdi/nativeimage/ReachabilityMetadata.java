@@ -0,0 +1,113 @@
+package es.danpintas.tdi.nativeimage;
+
+import static es.danpintas.reflect.Types.getTypeHierarchy;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.inject.Named;
+
+import es.danpintas.tdi.injection.InjectionPoints;
+import es.danpintas.tdi.utils.Qualifiers;
+
+/**
+ * Reachability metadata for GraalVM native images, gathered from the graph of an injector. <br/>
+ * Writes {@code reflect-config.json} for the analysed hierarchies, factory interfaces and
+ * qualifiers, and {@code proxy-config.json} for the factories and the qualifiers instantiated by
+ * {@link Qualifiers#from(Class)}. Entries are sorted, so the output is stable between runs.
+ *
+ * @author danpintas
+ */
+public final class ReachabilityMetadata {
+    
+    private static final String[] DECLARED =
+            {"allDeclaredConstructors", "allDeclaredFields", "allDeclaredMethods"};
+    private static final String[] PUBLIC = {"allPublicMethods"};
+    
+    private final Map<String, Set<String>> types = new TreeMap<>();
+    private final Set<String> proxies = new TreeSet<>();
+    
+    /**
+     * Registers the hierarchy of an analysed implementation for reflective access.
+     *
+     * @param points {@link InjectionPoints} of the implementation.
+     */
+    public void addInjectionPoints(InjectionPoints points) {
+        for (Class<?> type : getTypeHierarchy(points.getType()))
+            register(type, DECLARED);
+    }
+    
+    /**
+     * Registers a factory interface implemented by a dynamic proxy.
+     *
+     * @param factoryType Factory interface.
+     */
+    public void addFactory(Class<?> factoryType) {
+        register(factoryType, PUBLIC);
+        proxies.add(factoryType.getName());
+    }
+    
+    /**
+     * Registers a binding qualifier, which is a dynamic proxy unless it is {@link Named}.
+     *
+     * @param qualifier Qualifier {@link Annotation}, ignored if null.
+     */
+    public void addQualifier(Annotation qualifier) {
+        if (qualifier == null || qualifier instanceof Named)
+            return;
+        register(qualifier.annotationType(), DECLARED);
+        proxies.add(qualifier.annotationType().getName());
+    }
+    
+    private void register(Class<?> type, String[] access) {
+        types.computeIfAbsent(type.getName(), k -> new TreeSet<>()).addAll(Arrays.asList(access));
+    }
+    
+    /**
+     * Writes {@code reflect-config.json} and {@code proxy-config.json}, replacing them atomically.
+     *
+     * @param directory {@link Path} of the directory to write to, usually under
+     *                  {@code META-INF/native-image}.
+     * @throws IOException if the files cannot be written.
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        StringBuilder reflect = new StringBuilder("[");
+        for (Map.Entry<String, Set<String>> type : types.entrySet()) {
+            reflect.append(reflect.length() > 1 ? ",\n" : "\n").append("  {\n    \"name\": \"")
+                    .append(type.getKey()).append('"');
+            for (String access : type.getValue())
+                reflect.append(",\n    \"").append(access).append("\": true");
+            reflect.append("\n  }");
+        }
+        write(directory.resolve("reflect-config.json"), reflect.append("\n]\n"));
+        
+        StringBuilder proxy = new StringBuilder("[");
+        for (String type : proxies)
+            proxy.append(proxy.length() > 1 ? ",\n" : "\n").append("  {\n    \"interfaces\": [\"")
+                    .append(type).append("\"]\n  }");
+        write(directory.resolve("proxy-config.json"), proxy.append("\n]\n"));
+    }
+    
+    private static void write(Path path, CharSequence content) throws IOException {
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+}
@@ -0,0 +1,165 @@
+package es.danpintas.tdi.profile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import es.danpintas.tdi.keys.ProviderKey;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import es.danpintas.tdi.monitoring.ProvisionStage;
+
+/**
+ * {@link ProvisionListener} recording when each implementation is first provisioned, so a later
+ * startup can prepare the hot ones ahead of the first requests. <br/>
+ * Profiles are small binary files listing the implementation and scope names in the order they
+ * were first provisioned, with the time elapsed since the recorder was created.
+ *
+ * @author danpintas
+ */
+public final class StartupProfile implements ProvisionListener {
+    
+    private static final int MAGIC = 0x54444950;
+    private static final int VERSION = 1;
+    
+    /**
+     * Implementation recorded in a profile.
+     */
+    public static final class Entry {
+        
+        private final String type;
+        private final String scope;
+        private final long offset;
+        
+        private Entry(String type, String scope, long offset) {
+            this.type = type;
+            this.scope = scope;
+            this.offset = offset;
+        }
+        
+        /**
+         * Gets the name of the implementation class.
+         *
+         * @return Binary class name.
+         */
+        public String getType() {
+            return type;
+        }
+        
+        /**
+         * Gets the name of the scope annotation.
+         *
+         * @return Binary annotation name, null for prototypes.
+         */
+        public String getScope() {
+            return scope;
+        }
+        
+        /**
+         * Gets when the implementation was first provisioned.
+         *
+         * @return Nanoseconds since recording started.
+         */
+        public long getOffset() {
+            return offset;
+        }
+        
+    }
+    
+    private final long origin = System.nanoTime();
+    private final Map<ProviderKey<?>, Long> provisioned = new ConcurrentHashMap<>();
+    
+    @Override
+    public void started(ProvisionStage stage, ProviderKey<?> key) {
+        if (stage == ProvisionStage.PROVISION && !provisioned.containsKey(key))
+            provisioned.putIfAbsent(key, System.nanoTime() - origin);
+    }
+    
+    @Override
+    public void finished(ProvisionStage stage, ProviderKey<?> key) {
+        // only starts are recorded
+    }
+    
+    /**
+     * Gets the implementations provisioned so far.
+     *
+     * @return {@link Entry} list, in first provision order.
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>(provisioned.size());
+        for (Map.Entry<ProviderKey<?>, Long> key : provisioned.entrySet()) {
+            Class<?> scope = key.getKey().getScope();
+            entries.add(new Entry(key.getKey().getTypeData().getRawType().getName(),
+                    scope != null ? scope.getName() : null, key.getValue()));
+        }
+        entries.sort(Comparator.comparingLong(Entry::getOffset));
+        return entries;
+    }
+    
+    /**
+     * Writes the implementations provisioned so far, replacing the file atomically.
+     *
+     * @param path {@link Path} of the profile file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        List<Entry> entries = getEntries();
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+            out.writeUTF(entry.type);
+            out.writeUTF(entry.scope != null ? entry.scope : "");
+            out.writeLong(entry.offset);
+        }
+        
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, file.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Reads a profile.
+     *
+     * @param path {@link Path} of the profile file.
+     * @return {@link Entry} list, in first provision order.
+     * @throws IOException if the file cannot be read or is not a profile.
+     */
+    public static List<Entry> read(Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(path + " is not a compatible profile");
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String type = in.readUTF();
+                String scope = in.readUTF();
+                entries.add(new Entry(type, scope.isEmpty() ? null : scope, in.readLong()));
+            }
+            return Collections.unmodifiableList(entries);
+        } catch (EOFException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+    
+}
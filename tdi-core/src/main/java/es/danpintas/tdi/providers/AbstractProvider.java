@@ -1,5 +1,8 @@
 package es.danpintas.tdi.providers;
 
+import java.util.List;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Provider;
 
 /**
@@ -10,7 +13,7 @@ import javax.inject.Provider;
  */
 public abstract class AbstractProvider<T> implements Provider<T> {
     
-    private final Provider<T> provider;
+    private final InstanceProvider<T> provider;
     
     /**
      * Constructor setting the underlying provider.
@@ -21,6 +24,15 @@ public abstract class AbstractProvider<T> implements Provider<T> {
         this.provider = provider;
     }
     
+    /**
+     * Gets the underlying provider.
+     *
+     * @return {@link InstanceProvider}.
+     */
+    InstanceProvider<T> getInstanceProvider() {
+        return provider;
+    }
+    
     /**
      * Instances a new object through the underlying {@link InstanceProvider}.
      *
@@ -30,4 +42,54 @@ public abstract class AbstractProvider<T> implements Provider<T> {
         return provider.get();
     }
     
+    /**
+     * Instances a new object to be cached by the scope, through the underlying
+     * {@link InstanceProvider}.
+     *
+     * @return New injected object.
+     */
+    protected T scopedInstance() {
+        return provider.scoped();
+    }
+    
+    /**
+     * Instances a new object to be cached by the scope, which is responsible for destroying it
+     * through {@link #destroyInstance}. <br/>
+     * The {@link PreDestroy} handles of the unscoped objects created for it are collected instead
+     * of registered in the injector, so they run when it is destroyed.
+     *
+     * @param preDestroy {@link List} collecting the {@link PreDestroy} handles.
+     * @return New injected object.
+     */
+    protected T detachedInstance(List<Runnable> preDestroy) {
+        return provider.detached(preDestroy);
+    }
+    
+    /**
+     * Destroys an object created by {@link #detachedInstance(List)}, calling its
+     * {@link PreDestroy} method if any, and then the handles collected for it.
+     *
+     * @param instance   Object to destroy, null if it was already collected.
+     * @param preDestroy {@link List} with the collected {@link PreDestroy} handles, cleared.
+     */
+    protected void destroyInstance(T instance, List<Runnable> preDestroy) {
+        provider.destroy(instance, preDestroy);
+    }
+    
+    /**
+     * Reports to the provision listeners that the scope rebuilt an instance it had lost.
+     */
+    protected void rebuilt() {
+        provider.rebuilt();
+    }
+    
+    /**
+     * Registers an action to run when the injector is destroyed.
+     *
+     * @param action {@link Runnable} to run.
+     */
+    protected void onDestroy(Runnable action) {
+        provider.onDestroy(action);
+    }
+    
 }
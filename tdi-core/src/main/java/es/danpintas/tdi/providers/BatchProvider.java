@@ -0,0 +1,25 @@
+package es.danpintas.tdi.providers;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.inject.Provider;
+
+/**
+ * {@link Provider} creating several instances in one call, paying its fixed costs once per batch.
+ *
+ * @param <T> Type to instantiate.
+ * @author danpintas
+ */
+public interface BatchProvider<T> extends Provider<T> {
+    
+    /**
+     * Gets several new instances.
+     *
+     * @param count    Number of instances, not negative.
+     * @param parallel true to spread construction across the common {@link ForkJoinPool}.
+     * @return Fixed-size {@link List} with {@code count} instances.
+     */
+    List<T> get(int count, boolean parallel);
+    
+}
@@ -0,0 +1,30 @@
+package es.danpintas.tdi.providers;
+
+import javax.inject.Provider;
+
+/**
+ * Provider for an instance bound straight away, always returning it. <br/>
+ * Linking inlines its instance instead of calling it.
+ *
+ * @param <T> Instance type.
+ * @author danpintas
+ */
+public final class ConstantProvider<T> implements Provider<T> {
+    
+    private final T instance;
+    
+    /**
+     * Constructor.
+     *
+     * @param instance Bound instance.
+     */
+    public ConstantProvider(T instance) {
+        this.instance = instance;
+    }
+    
+    @Override
+    public T get() {
+        return instance;
+    }
+    
+}
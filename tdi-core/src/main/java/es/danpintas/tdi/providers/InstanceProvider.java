@@ -1,37 +1,35 @@
 package es.danpintas.tdi.providers;
 
-
-import static es.danpintas.reflect.Types.getMethods;
-import static es.danpintas.reflect.Types.getTypeHierarchy;
-import static es.danpintas.reflect.Types.isOverride;
-import static es.danpintas.tdi.utils.TypeUtils.getInjectConstructor;
-import static es.danpintas.tdi.utils.TypeUtils.getInjectFields;
-import static es.danpintas.tdi.utils.TypeUtils.getPostConstructMethod;
-import static es.danpintas.tdi.utils.TypeUtils.getPreDestroyMethod;
-
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
 import javax.inject.Provider;
 
 import es.danpintas.reflect.TypeData;
+import es.danpintas.reflect.Validations;
+import es.danpintas.tdi.assisted.Assisted;
 import es.danpintas.tdi.exceptions.InjectException;
 import es.danpintas.tdi.injection.ConstructorInjector;
 import es.danpintas.tdi.injection.FieldInjector;
+import es.danpintas.tdi.injection.InjectionPoints;
 import es.danpintas.tdi.injection.MemberInjector;
 import es.danpintas.tdi.injection.MethodInjector;
 import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.keys.ProviderKey;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import es.danpintas.tdi.monitoring.ProvisionStage;
 
 /**
  * Underlying {@link Provider}, always initializing an instance.
@@ -39,163 +37,293 @@ import es.danpintas.tdi.keys.BindingKey;
  * @param <T> Type to instantiate.
  * @author danpintas
  */
-public final class InstanceProvider<T> implements Provider<T> {
+public final class InstanceProvider<T> implements BatchProvider<T> {
+    
+    /**
+     * {@link PreDestroy} handles of the discarded instances being created by this thread, null
+     * unless inside {@link #discarded(Provider, List)}.
+     */
+    private static final ThreadLocal<List<Runnable>> DISCARDED = new ThreadLocal<>();
     
+    private final ProviderKey<? extends T> key;
     private final ConstructorInjector<T> constructorInjector;
     private final MemberInjector[] staticMemberInjectors;
     private final MemberInjector[] memberInjectors;
     private final Method postConstruct;
     private final Method preDestroy;
     private final Consumer<Runnable> destroyer;
+    private final ProvisionListener listener;
     
     private final Consumer<MemberInjector[]> staticInjector;
     
     /**
      * Constructor.
      *
-     * @param typeData       {@link TypeData} for the instantiated {@link Class}.
+     * @param key            {@link ProviderKey} with the instantiated {@link TypeData} and its scope.
+     * @param points         {@link InjectionPoints} of the instantiated {@link Class}.
      * @param fun            {@link Function} defining how to get a {@link Provider} from a {@link BindingKey}.
      * @param staticInjector {@link Consumer} adding the static members to the injector context.
      * @param destroyer      {@link Consumer} registering a {@link PreDestroy} handle.
+     * @param listener       {@link ProvisionListener} to notify, null if none.
      */
-    public InstanceProvider(TypeData<? extends T> typeData, Function<BindingKey<?>, Provider<?>> fun,
-                            Consumer<MemberInjector[]> staticInjector, Consumer<Runnable> destroyer) {
+    public InstanceProvider(ProviderKey<? extends T> key, InjectionPoints points,
+                            Function<BindingKey<?>, Provider<?>> fun,
+                            Consumer<MemberInjector[]> staticInjector, Consumer<Runnable> destroyer,
+                            ProvisionListener listener) {
         
-        @SuppressWarnings("unchecked")
-        Class<? extends T> rawType = (Class<? extends T>) typeData.getRawType();
+        TypeData<? extends T> typeData = key.getTypeData();
         
-        this.constructorInjector = initConstructor(rawType, typeData, fun);
+        this.key = key;
+        this.constructorInjector = new ConstructorInjector<>(typeData, fun, points.getConstructor());
         this.staticInjector = staticInjector;
         this.destroyer = destroyer;
+        this.listener = listener;
         
-        List<Class<?>> typeHierarchy = getTypeHierarchy(rawType);
-        int hierarchySize = typeHierarchy.size();
-        List<List<Field>> tempFields = new ArrayList<>(typeHierarchy.size());
-        List<List<Method>> tempMethods = new ArrayList<>(typeHierarchy.size());
-        for (Class<?> type : typeHierarchy)
-            parseType(type, tempFields, tempMethods);
-        removeOverridden(tempMethods);
-        removeNotInject(tempMethods);
-        List<MemberInjector> staticInjectorsList = new LinkedList<>();
-        List<MemberInjector> injectorsList = new LinkedList<>();
-        for (int i = 0; i < hierarchySize; i++) {
-            addFields(typeData, fun, tempFields.get(i), staticInjectorsList, injectorsList);
-            addInjectors(typeData, fun, tempMethods.get(i), staticInjectorsList, injectorsList);
+        List<MemberInjector> staticInjectorsList = new ArrayList<>();
+        List<MemberInjector> injectorsList = new ArrayList<>();
+        for (Member member : points.getMembers()) {
+            MemberInjector injector = member instanceof Field
+                    ? new FieldInjector(typeData, fun, (Field) member)
+                    : new MethodInjector(typeData, fun, (Method) member);
+            if (Modifier.isStatic(member.getModifiers()))
+                staticInjectorsList.add(injector);
+            else
+                injectorsList.add(injector);
         }
         
-        staticMemberInjectors =
-                staticInjectorsList.toArray(new MemberInjector[0]);
+        staticMemberInjectors = staticInjectorsList.toArray(new MemberInjector[0]);
         memberInjectors = injectorsList.toArray(new MemberInjector[0]);
         
-        postConstruct = getPostConstructMethod(rawType);
-        if (postConstruct != null)
-            postConstruct.setAccessible(true);
-        
-        preDestroy = getPreDestroyMethod(rawType);
-        if (preDestroy != null)
-            preDestroy.setAccessible(true);
+        postConstruct = points.getPostConstruct();
+        preDestroy = points.getPreDestroy();
     }
     
-    private void parseType(Class<?> subType, List<List<Field>> tempFields,
-                           List<List<Method>> tempMethods) {
-        tempFields.add(getInjectFields(subType));
-        tempMethods.add(getMethods(subType));
+    @Override
+    public T get() {
+        return create(null);
     }
     
-    private ConstructorInjector<T> initConstructor(Class<? extends T> type,
-                                                   TypeData<? extends T> typeData, Function<BindingKey<?>, Provider<?>> fun) {
-        try {
-            Constructor<? extends T> c = getInjectConstructor(type);
-            if (c == null)
-                c = type.getDeclaredConstructor();
-            return new ConstructorInjector<>(typeData, fun, c);
-        } catch (NoSuchMethodException t) {
-            throw new InjectException(t);
-        }
+    /**
+     * Creates a new instance, passing the given args to the {@link Assisted} constructor
+     * parameters.
+     *
+     * @param assisted Values for the {@link Assisted} parameters, null if none.
+     * @return New injected object.
+     */
+    public T create(Object[] assisted) {
+        return create(assisted, true);
+    }
+    
+    /**
+     * Creates several new instances, registering a single {@link PreDestroy} handle for all of
+     * them. <br/>
+     * If any construction fails, the handle is still registered for the instances already
+     * created before rethrowing.
+     *
+     * @param count    Number of instances, not negative.
+     * @param parallel true to spread construction across the common {@link ForkJoinPool}.
+     * @return Fixed-size {@link List} with {@code count} new injected objects.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> get(int count, boolean parallel) {
+        Validations.checkArgument(count >= 0, "Negative count %s", count);
+        Object[] instances = new Object[count];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        if (parallel)
+            IntStream.range(0, count).parallel().forEach(i -> {
+                if (failure.get() == null)
+                    try {
+                        instances[i] = create(null, false);
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                    }
+            });
+        else
+            try {
+                for (int i = 0; i < count; i++)
+                    instances[i] = create(null, false);
+            } catch (RuntimeException | Error e) {
+                failure.set(e);
+            }
+        if (preDestroy != null && count > 0)
+            register(() -> {
+                for (int i = count - 1; i >= 0; i--)
+                    if (instances[i] != null)
+                        preDestroy((T) instances[i]);
+            });
+        Throwable thrown = failure.get();
+        if (thrown instanceof Error)
+            throw (Error) thrown;
+        if (thrown != null)
+            throw (RuntimeException) thrown;
+        return (List<T>) Arrays.asList(instances);
     }
     
-    private void removeOverridden(List<List<Method>> tempMethods) {
-        List<Method> included = new LinkedList<>();
-        for (int i = tempMethods.size() - 1; i >= 0; i--)
-            removeOverriddenSub(included, tempMethods.get(i));
+    /**
+     * Gets an instance to be discarded right away, collecting the {@link PreDestroy} handles of
+     * the unscoped instances created for it instead of registering them. <br/>
+     * Instances cached by a scope meanwhile are registered as usual.
+     *
+     * @param provider   {@link Provider} to call.
+     * @param preDestroy {@link List} collecting the {@link PreDestroy} handles, in creation order.
+     * @param <T>        Provided type.
+     * @return Provided object.
+     */
+    public static <T> T discarded(Provider<T> provider, List<Runnable> preDestroy) {
+        List<Runnable> outer = DISCARDED.get();
+        DISCARDED.set(preDestroy);
+        try {
+            return provider.get();
+        } finally {
+            if (outer != null)
+                DISCARDED.set(outer);
+            else
+                DISCARDED.remove();
+        }
     }
     
-    private void removeOverriddenSub(List<Method> included, List<Method> subList) {
-        for (Iterator<Method> iterator = subList.iterator(); iterator.hasNext(); ) {
-            Method method = iterator.next();
-            boolean overridden = false;
-            for (Method sub : included) {
-                if (isOverride(method, sub)) {
-                    overridden = true;
-                    break;
-                }
+    /**
+     * Gets a new instance to be cached by a scope that destroys it on its own, collecting the
+     * {@link PreDestroy} handles of the unscoped instances created for it instead of registering
+     * them. <br/>
+     * If the construction fails, the handles collected so far are run before rethrowing.
+     *
+     * @param preDestroy {@link List} collecting the {@link PreDestroy} handles, in creation order.
+     * @return New injected object, without a registered {@link PreDestroy} handle.
+     */
+    T detached(List<Runnable> preDestroy) {
+        List<Runnable> outer = DISCARDED.get();
+        DISCARDED.set(preDestroy);
+        try {
+            if (listener == null)
+                return create(null, false);
+            listener.started(ProvisionStage.SCOPED, key);
+            try {
+                return create(null, false);
+            } finally {
+                listener.finished(ProvisionStage.SCOPED, key);
             }
-            if (overridden)
-                iterator.remove();
+        } catch (RuntimeException | Error e) {
+            destroy(null, preDestroy);
+            throw e;
+        } finally {
+            if (outer != null)
+                DISCARDED.set(outer);
             else
-                included.add(method);
+                DISCARDED.remove();
         }
     }
     
-    private void removeNotInject(List<List<Method>> tempMethods) {
-        for (List<Method> subList : tempMethods)
-            subList.removeIf(method -> method.getAnnotation(Inject.class) == null);
+    /**
+     * Calls the {@link PreDestroy} method of an instance created by {@link #detached(List)}, if
+     * any, and then the handles collected for it, in reverse creation order.
+     *
+     * @param instance   Instance to destroy, null if only the collected handles are left.
+     * @param preDestroy {@link List} with the collected {@link PreDestroy} handles, cleared.
+     */
+    void destroy(T instance, List<Runnable> preDestroy) {
+        if (instance != null && this.preDestroy != null)
+            preDestroy(instance);
+        for (int i = preDestroy.size() - 1; i >= 0; i--)
+            preDestroy.get(i).run();
+        preDestroy.clear();
     }
     
-    private void addFields(TypeData<? extends T> typeData, Function<BindingKey<?>, Provider<?>> fun,
-                           List<Field> subTemp, List<MemberInjector> staticInjectorsList,
-                           List<MemberInjector> injectorsList) {
-        for (Field field : subTemp) {
-            FieldInjector fInjector = new FieldInjector(typeData, fun, field);
-            if (Modifier.isStatic(field.getModifiers()))
-                staticInjectorsList.add(fInjector);
-            else
-                injectorsList.add(fInjector);
+    /**
+     * Notifies the listener, if any, that the scope rebuilt an instance it had lost.
+     */
+    void rebuilt() {
+        if (listener != null)
+            listener.rebuilt(key);
+    }
+    
+    /**
+     * Registers an action to run when the injector is destroyed.
+     *
+     * @param action {@link Runnable} to run.
+     */
+    void onDestroy(Runnable action) {
+        destroyer.accept(action);
+    }
+    
+    private T create(Object[] assisted, boolean destroyable) {
+        if (listener == null)
+            return provision(assisted, destroyable);
+        listener.started(ProvisionStage.PROVISION, key);
+        try {
+            return provision(assisted, destroyable);
+        } finally {
+            listener.finished(ProvisionStage.PROVISION, key);
         }
     }
     
-    private void addInjectors(TypeData<? extends T> typeData,
-                              Function<BindingKey<?>, Provider<?>> fun, List<Method> subTemp,
-                              List<MemberInjector> staticInjectorsList, List<MemberInjector> injectorsList) {
-        for (Method method : subTemp) {
-            MethodInjector mInjector = new MethodInjector(typeData, fun, method);
-            if (Modifier.isStatic(method.getModifiers()))
-                staticInjectorsList.add(mInjector);
-            else
-                injectorsList.add(mInjector);
+    /**
+     * Gets a new instance to be cached by a scope.
+     *
+     * @return New injected object.
+     */
+    T scoped() {
+        List<Runnable> discarded = DISCARDED.get();
+        if (discarded != null)
+            DISCARDED.remove();
+        try {
+            if (listener == null)
+                return get();
+            listener.started(ProvisionStage.SCOPED, key);
+            try {
+                return get();
+            } finally {
+                listener.finished(ProvisionStage.SCOPED, key);
+            }
+        } finally {
+            if (discarded != null)
+                DISCARDED.set(discarded);
         }
     }
     
-    @Override
-    public T get() {
-        T instance = constructorInjector.inject();
+    private T provision(Object[] assisted, boolean destroyable) {
+        T instance = assisted == null ? constructorInjector.inject()
+                : constructorInjector.inject(assisted);
         inject(instance);
         if (postConstruct != null)
             postConstruct(instance);
-        if (preDestroy != null) {
-            destroyer.accept(() -> preDestroy(instance));
-        }
+        if (destroyable && preDestroy != null)
+            register(() -> preDestroy(instance));
         return instance;
     }
     
+    private void register(Runnable action) {
+        List<Runnable> discarded = DISCARDED.get();
+        if (discarded != null)
+            discarded.add(action);
+        else
+            destroyer.accept(action);
+    }
+    
     private void inject(T instance) {
         for (MemberInjector memberInjector : memberInjectors)
             memberInjector.inject(instance);
     }
     
     private void postConstruct(T instance) {
-        try {
-            postConstruct.invoke(instance);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new InjectException(e);
-        }
+        invoke(ProvisionStage.POST_CONSTRUCT, postConstruct, instance);
     }
     
     private void preDestroy(T instance) {
+        invoke(ProvisionStage.PRE_DESTROY, preDestroy, instance);
+    }
+    
+    private void invoke(ProvisionStage stage, Method method, T instance) {
+        if (listener != null)
+            listener.started(stage, key);
         try {
-            preDestroy.invoke(instance);
+            method.invoke(instance);
         } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
             throw new InjectException(e);
+        } finally {
+            if (listener != null)
+                listener.finished(stage, key);
         }
     }
     
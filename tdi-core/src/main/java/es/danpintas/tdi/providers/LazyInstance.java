@@ -0,0 +1,42 @@
+package es.danpintas.tdi.providers;
+
+import java.util.function.Supplier;
+
+/**
+ * Lazily created instance, safely published to every thread once created. <br/>
+ * Newer runtimes load the versions of this class packaged under {@code META-INF/versions}.
+ *
+ * @param <T> Instance type.
+ * @author danpintas
+ */
+final class LazyInstance<T> {
+    
+    private volatile T instance;
+    
+    /**
+     * Gets the Java release this implementation targets.
+     *
+     * @return Java feature version.
+     */
+    static int release() {
+        return 8;
+    }
+    
+    /**
+     * Gets the instance, creating it on first call.
+     *
+     * @param factory {@link Supplier} creating the instance, called at most once.
+     * @return Instance.
+     */
+    T get(Supplier<? extends T> factory) {
+        T result = instance;
+        if (result == null)
+            synchronized (this) {
+                result = instance;
+                if (result == null)
+                    instance = result = factory.get();
+            }
+        return result;
+    }
+    
+}
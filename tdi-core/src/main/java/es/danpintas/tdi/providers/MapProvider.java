@@ -0,0 +1,56 @@
+package es.danpintas.tdi.providers;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+/**
+ * Provider for a multibound {@link Map}, backed by the keys and value providers fixed at build
+ * time. <br/>
+ * When every value is constant, the map is built on first use and shared afterwards.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @author danpintas
+ */
+public final class MapProvider<K, V> implements Provider<Map<K, V>> {
+    
+    private final K[] keys;
+    private final Provider<? extends V>[] values;
+    private final boolean constant;
+    private volatile Map<K, V> map;
+    
+    /**
+     * Constructor.
+     *
+     * @param keys     Unique keys, in contribution order.
+     * @param values   Value {@link Provider} array, matching {@code keys}.
+     * @param constant true if every value provider always returns the same instance.
+     */
+    public MapProvider(K[] keys, Provider<? extends V>[] values, boolean constant) {
+        this.keys = keys;
+        this.values = values;
+        this.constant = constant;
+    }
+    
+    @Override
+    public Map<K, V> get() {
+        Map<K, V> result = map;
+        if (result == null) {
+            result = build();
+            if (constant)
+                map = result;
+        }
+        return result;
+    }
+    
+    private Map<K, V> build() {
+        Map<K, V> result = new LinkedHashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++)
+            result.put(keys[i], values[i].get());
+        return Collections.unmodifiableMap(result);
+    }
+    
+}
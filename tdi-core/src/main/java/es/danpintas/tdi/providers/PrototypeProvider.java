@@ -1,12 +1,14 @@
 package es.danpintas.tdi.providers;
 
+import java.util.List;
+
 /**
  * Default provider, always returning a new instance.
  *
  * @param <T> Type to instantiate.
  * @author danpintas
  */
-public class PrototypeProvider<T> extends AbstractProvider<T> {
+public class PrototypeProvider<T> extends AbstractProvider<T> implements BatchProvider<T> {
     
     /**
      * Constructor
@@ -22,4 +24,9 @@ public class PrototypeProvider<T> extends AbstractProvider<T> {
         return instance();
     }
     
+    @Override
+    public List<T> get(int count, boolean parallel) {
+        return getInstanceProvider().get(count, parallel);
+    }
+    
 }
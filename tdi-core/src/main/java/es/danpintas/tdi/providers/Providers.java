@@ -0,0 +1,42 @@
+package es.danpintas.tdi.providers;
+
+import javax.inject.Provider;
+
+/**
+ * {@link Provider} related utilities, used to flatten the provision plans when linking.
+ *
+ * @author danpintas
+ */
+public final class Providers {
+    
+    private Providers() {
+        // utils class
+    }
+    
+    /**
+     * Flattens a provider, unwrapping prototypes to the {@code InstanceProvider} they delegate to.
+     * <br/>
+     * Subclasses of {@link PrototypeProvider} are kept, since they may override its provision.
+     *
+     * @param provider {@link Provider} to flatten, may be null.
+     * @return Flattened {@link Provider}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Provider<T> flatten(Provider<T> provider) {
+        return provider != null && provider.getClass() == PrototypeProvider.class
+                ? ((PrototypeProvider<T>) provider).getInstanceProvider() : provider;
+    }
+    
+    /**
+     * Declares if a provider always returns the same instance.
+     *
+     * @param provider {@link Provider} to check.
+     * @return true for constants and plain singletons, false otherwise, even for subclasses of
+     * {@link SingletonProvider} that may override its provision.
+     */
+    public static boolean isConstant(Provider<?> provider) {
+        return provider instanceof ConstantProvider
+                || provider != null && provider.getClass() == SingletonProvider.class;
+    }
+    
+}
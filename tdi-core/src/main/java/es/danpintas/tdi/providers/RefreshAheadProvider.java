@@ -0,0 +1,186 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import es.danpintas.tdi.keys.ScopeKey;
+
+/**
+ * Time based provider, caching an instance for a time to live and rebuilding it in the
+ * background before it expires. <br/>
+ * Only the first call blocks; afterwards readers get the cached instance until its replacement
+ * is ready, and the replaced instance is destroyed, calling its {@link PreDestroy} method, even if
+ * readers that got it earlier are still using it. A failed rebuild keeps the cached instance and
+ * is retried after a growing delay. Once the time to live is over, readers block rebuilding the
+ * instance, and get the failure if that rebuild fails too. <br/>
+ * The unscoped objects injected into each instance are destroyed along with it.
+ *
+ * @param <T> Type to instantiate.
+ * @author danpintas
+ */
+public class RefreshAheadProvider<T> extends AbstractProvider<T> {
+    
+    private static final class Entry<T> {
+        
+        private final T instance;
+        private final List<Runnable> preDestroy;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final int failures;
+        
+        private Entry(T instance, List<Runnable> preDestroy, long refreshAt, long expiresAt,
+                      int failures) {
+            this.instance = instance;
+            this.preDestroy = preDestroy;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+            this.failures = failures;
+        }
+        
+    }
+    
+    private final long timeToLive;
+    private final long refreshAfter;
+    private final long retryAfter;
+    private final Executor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Entry<T> entry;
+    
+    /**
+     * Constructor.
+     *
+     * @param provider   Underlying {@link InstanceProvider}.
+     * @param timeToLive Time each instance is cached for.
+     * @param unit       {@link TimeUnit} of {@code timeToLive}.
+     * @param executor   {@link Executor} rebuilding the instances.
+     */
+    public RefreshAheadProvider(InstanceProvider<T> provider, long timeToLive, TimeUnit unit,
+                                Executor executor) {
+        super(provider);
+        this.timeToLive = unit.toNanos(timeToLive);
+        // rebuilds once three quarters of the time to live have elapsed
+        this.refreshAfter = this.timeToLive / 4 * 3;
+        // retries after 1/16, 1/8 and then every 1/4 of the time to live
+        this.retryAfter = this.timeToLive / 16;
+        this.executor = executor;
+    }
+    
+    /**
+     * Declares a refresh-ahead scope rebuilding its instances on the common {@link ForkJoinPool}.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @param timeToLive Time each instance is cached for.
+     * @param unit       {@link TimeUnit} of {@code timeToLive}.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    public static ScopeKey scope(Class<? extends Annotation> annotation, long timeToLive,
+                                 TimeUnit unit) {
+        return scope(annotation, timeToLive, unit, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Declares a refresh-ahead scope.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @param timeToLive Time each instance is cached for.
+     * @param unit       {@link TimeUnit} of {@code timeToLive}.
+     * @param executor   {@link Executor} rebuilding the instances.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    @SuppressWarnings("unchecked")
+    public static ScopeKey scope(Class<? extends Annotation> annotation, long timeToLive,
+                                 TimeUnit unit, Executor executor) {
+        return new ScopeKey(annotation,
+                provider -> new RefreshAheadProvider<>(provider, timeToLive, unit, executor));
+    }
+    
+    @Override
+    public T get() {
+        Entry<T> current = entry;
+        if (current == null)
+            return initialize().instance;
+        long now = System.nanoTime();
+        if (now - current.expiresAt >= 0)
+            current = expire(current);
+        else if (now - current.refreshAt >= 0 && refreshing.compareAndSet(false, true))
+            refresh(current);
+        return current.instance;
+    }
+    
+    private synchronized Entry<T> initialize() {
+        Entry<T> current = entry;
+        if (current == null) {
+            entry = current = create();
+            onDestroy(() -> destroy(entry));
+        }
+        return current;
+    }
+    
+    private Entry<T> create() {
+        List<Runnable> preDestroy = new ArrayList<>();
+        T instance = detachedInstance(preDestroy);
+        long now = System.nanoTime();
+        return new Entry<>(instance, preDestroy, now + refreshAfter, now + timeToLive, 0);
+    }
+    
+    private void destroy(Entry<T> destroyed) {
+        destroyInstance(destroyed.instance, destroyed.preDestroy);
+    }
+    
+    /**
+     * Rebuilds an expired instance in the calling thread, unless it was already replaced.
+     */
+    private synchronized Entry<T> expire(Entry<T> current) {
+        if (entry != current)
+            return entry;
+        entry = create();
+        destroy(current);
+        return entry;
+    }
+    
+    private void refresh(Entry<T> current) {
+        try {
+            executor.execute(() -> {
+                try {
+                    rebuild(current);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+    
+    private void rebuild(Entry<T> current) {
+        Entry<T> replacement;
+        try {
+            replacement = create();
+        } catch (RuntimeException e) {
+            long delay = retryAfter << Math.min(current.failures, 2);
+            replace(current, new Entry<>(current.instance, current.preDestroy,
+                    System.nanoTime() + delay, current.expiresAt, current.failures + 1));
+            return;
+        }
+        if (replace(current, replacement))
+            destroy(current);
+        else
+            destroy(replacement);
+    }
+    
+    private synchronized boolean replace(Entry<T> current, Entry<T> replacement) {
+        if (entry != current)
+            return false;
+        entry = replacement;
+        return true;
+    }
+    
+}
@@ -0,0 +1,52 @@
+package es.danpintas.tdi.providers;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.inject.Provider;
+
+/**
+ * Provider for a multibound {@link Set}, backed by the element providers fixed at build time.
+ * <br/>
+ * When every element is constant, the set is built on first use and shared afterwards.
+ *
+ * @param <T> Element type.
+ * @author danpintas
+ */
+public final class SetProvider<T> implements Provider<Set<T>> {
+    
+    private final Provider<? extends T>[] elements;
+    private final boolean constant;
+    private volatile Set<T> set;
+    
+    /**
+     * Constructor.
+     *
+     * @param elements Element {@link Provider} array, in contribution order.
+     * @param constant true if every element provider always returns the same instance.
+     */
+    public SetProvider(Provider<? extends T>[] elements, boolean constant) {
+        this.elements = elements;
+        this.constant = constant;
+    }
+    
+    @Override
+    public Set<T> get() {
+        Set<T> result = set;
+        if (result == null) {
+            result = build();
+            if (constant)
+                set = result;
+        }
+        return result;
+    }
+    
+    private Set<T> build() {
+        Set<T> result = new LinkedHashSet<>(elements.length * 2);
+        for (Provider<? extends T> element : elements)
+            result.add(element.get());
+        return Collections.unmodifiableSet(result);
+    }
+    
+}
@@ -1,5 +1,7 @@
 package es.danpintas.tdi.providers;
 
+import java.util.function.Supplier;
+
 import javax.inject.Singleton;
 
 /**
@@ -10,7 +12,8 @@ import javax.inject.Singleton;
  */
 public class SingletonProvider<T> extends AbstractProvider<T> {
     
-    private T instance;
+    private final LazyInstance<T> instance = new LazyInstance<>();
+    private final Supplier<T> factory = this::scopedInstance;
     
     /**
      * Constructor
@@ -22,10 +25,8 @@ public class SingletonProvider<T> extends AbstractProvider<T> {
     }
     
     @Override
-    public synchronized T get() {
-        if (instance == null)
-            instance = instance();
-        return instance;
+    public T get() {
+        return instance.get(factory);
     }
     
 }
@@ -0,0 +1,120 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Singleton;
+
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.monitoring.ProvisionMetrics;
+
+/**
+ * Memory sensitive {@link Singleton}, holding its instance through a {@link SoftReference}. <br/>
+ * Once the garbage collector clears the instance under heap pressure, the next call rebuilds it
+ * through the underlying {@link InstanceProvider}, reporting the rebuild to the provision listeners
+ * and counting it in an optional counter. Instances collected this
+ * way are not destroyed, so this scope suits recomputable objects such as lookup tables; the
+ * unscoped objects injected into them are destroyed on the rebuild.
+ *
+ * @param <T> Type to instantiate.
+ * @author danpintas
+ */
+public class SoftProvider<T> extends AbstractProvider<T> {
+    
+    private final Object lock = new Object();
+    private final LongAdder rebuilds;
+    // handles of the objects injected into the current instance, guarded by lock
+    private final List<Runnable> preDestroy = new ArrayList<>();
+    private volatile SoftReference<T> reference;
+    
+    /**
+     * Constructor.
+     *
+     * @param provider Underlying {@link InstanceProvider}.
+     */
+    public SoftProvider(InstanceProvider<T> provider) {
+        this(provider, null);
+    }
+    
+    /**
+     * Constructor.
+     *
+     * @param provider Underlying {@link InstanceProvider}.
+     * @param rebuilds {@link LongAdder} counting the rebuilt instances, null if none.
+     */
+    public SoftProvider(InstanceProvider<T> provider, LongAdder rebuilds) {
+        super(provider);
+        this.rebuilds = rebuilds;
+        onDestroy(this::destroy);
+    }
+    
+    /**
+     * Declares a soft scope. Rebuilds are reported to the provision listeners, such as
+     * {@link ProvisionMetrics}.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    @SuppressWarnings("unchecked")
+    public static ScopeKey scope(Class<? extends Annotation> annotation) {
+        return new ScopeKey(annotation, SoftProvider::new);
+    }
+    
+    /**
+     * Declares a soft scope, also counting the instances rebuilt by all its bindings in a counter
+     * kept by the caller.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @param rebuilds   {@link LongAdder} counting the rebuilt instances.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    @SuppressWarnings("unchecked")
+    public static ScopeKey scope(Class<? extends Annotation> annotation, LongAdder rebuilds) {
+        return new ScopeKey(annotation, provider -> new SoftProvider<>(provider, rebuilds));
+    }
+    
+    @Override
+    public T get() {
+        T instance = peek();
+        if (instance != null)
+            return instance;
+        synchronized (lock) {
+            instance = peek();
+            if (instance == null) {
+                if (reference != null) {
+                    rebuilt();
+                    if (rebuilds != null)
+                        rebuilds.increment();
+                    destroyInstance(null, preDestroy);
+                }
+                instance = detachedInstance(preDestroy);
+                reference = new SoftReference<>(instance);
+            }
+            return instance;
+        }
+    }
+    
+    /**
+     * Clears the instance, as the garbage collector does under heap pressure.
+     */
+    void clear() {
+        SoftReference<T> current = reference;
+        if (current != null)
+            current.clear();
+    }
+    
+    private T peek() {
+        SoftReference<T> current = reference;
+        return current == null ? null : current.get();
+    }
+    
+    private void destroy() {
+        synchronized (lock) {
+            destroyInstance(peek(), preDestroy);
+        }
+    }
+    
+}
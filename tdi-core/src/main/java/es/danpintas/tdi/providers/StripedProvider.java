@@ -0,0 +1,103 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import es.danpintas.tdi.keys.ScopeKey;
+
+/**
+ * Striped provider, keeping a small fixed number of instances and confining each of them to one
+ * thread. <br/>
+ * A thread claims a free stripe on its first call and uses its instance exclusively until it
+ * dies, when the stripe is claimed again by another thread. Once every stripe is owned by a live
+ * thread, further threads share a single overflow instance, so code that may run on more threads
+ * than stripes must synchronize on the instance:
+ * <pre>{@code
+ * MessageDigest digest = digests.get();
+ * synchronized (digest) {
+ *     digest.reset();
+ *     return digest.digest(bytes);
+ * }
+ * }</pre>
+ * The lock is uncontended for the owner of a stripe. Suits heavy helpers which are not thread
+ * safe, such as formatters or digesters, used from a bounded set of threads such as a pool: size
+ * the stripes to that set.
+ *
+ * @param <T> Type to instantiate.
+ * @author danpintas
+ */
+public class StripedProvider<T> extends AbstractProvider<T> {
+    
+    private final LazyInstance<T>[] instances;
+    private final AtomicReferenceArray<Thread> owners;
+    private final ThreadLocal<LazyInstance<T>> owned = new ThreadLocal<>();
+    private final LazyInstance<T> overflow = new LazyInstance<>();
+    private final Supplier<T> factory = this::scopedInstance;
+    
+    /**
+     * Constructor.
+     *
+     * @param provider Underlying {@link InstanceProvider}.
+     * @param stripes  Number of stripes, at least one.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedProvider(InstanceProvider<T> provider, int stripes) {
+        super(provider);
+        int size = Math.max(stripes, 1);
+        this.instances = new LazyInstance[size];
+        for (int s = 0; s < size; s++)
+            instances[s] = new LazyInstance<>();
+        this.owners = new AtomicReferenceArray<>(size);
+    }
+    
+    /**
+     * Declares a striped scope with one stripe per available processor.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    public static ScopeKey scope(Class<? extends Annotation> annotation) {
+        return scope(annotation, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Declares a striped scope.
+     *
+     * @param annotation Scope {@link Annotation}.
+     * @param stripes    Number of stripes, at least one.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    @SuppressWarnings("unchecked")
+    public static ScopeKey scope(Class<? extends Annotation> annotation, int stripes) {
+        return new ScopeKey(annotation, provider -> new StripedProvider<>(provider, stripes));
+    }
+    
+    @Override
+    public T get() {
+        LazyInstance<T> instance = owned.get();
+        if (instance == null) {
+            instance = claim();
+            if (instance == null)
+                return overflow.get(factory);
+            owned.set(instance);
+        }
+        return instance.get(factory);
+    }
+    
+    /**
+     * Claims a stripe for the current thread, either a free one or one owned by a dead thread.
+     *
+     * @return Instance of the claimed stripe, or null if all are owned by live threads.
+     */
+    private LazyInstance<T> claim() {
+        Thread current = Thread.currentThread();
+        for (int s = 0; s < instances.length; s++) {
+            Thread owner = owners.get(s);
+            if ((owner == null || !owner.isAlive()) && owners.compareAndSet(s, owner, current))
+                return instances[s];
+        }
+        return null;
+    }
+    
+}
@@ -0,0 +1,209 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.PreDestroy;
+
+import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.keys.ScopeKey;
+
+/**
+ * Keyed provider, caching one instance per tenant taken from a context supplier. <br/>
+ * Instances are kept in a concurrent cache bounded by weight, where the least recently used
+ * tenants are evicted and destroyed, calling their {@link PreDestroy} method. Each tenant is
+ * created behind its own lock, so different tenants never wait for each other. <br/>
+ * Reads never lock. Eviction approximates LRU by sampling a few tenants from a cursor walking
+ * the cache, so its cost does not grow with the number of tenants. An evicted instance is
+ * destroyed right away, even if a thread that got it before the eviction is still using it, so
+ * the bound should leave room for every tenant in use at once. The unscoped objects injected
+ * into an instance are destroyed along with it.
+ *
+ * @param <T> Type to instantiate.
+ * @author danpintas
+ */
+public class TenantProvider<T> extends AbstractProvider<T> {
+    
+    private static final int SAMPLES = 8;
+    
+    private static final class Tenant<T> {
+        
+        private final LazyInstance<T> instance = new LazyInstance<>();
+        private final List<Runnable> preDestroy = new ArrayList<>();
+        private Supplier<T> factory;
+        // set when creating the instance fails, guarded by the instance lock
+        private boolean failed;
+        private final AtomicBoolean counted = new AtomicBoolean();
+        private volatile T created;
+        private volatile long accessed;
+        private long weight;
+        
+    }
+    
+    private final Supplier<?> tenants;
+    private final long maximumWeight;
+    private final ToLongFunction<Object> weigher;
+    private final Map<Object, Tenant<T>> instances = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();
+    // only walked while evicting, guarded by weight
+    private Iterator<Map.Entry<Object, Tenant<T>>> cursor = Collections.emptyIterator();
+    
+    /**
+     * Constructor.
+     *
+     * @param provider      Underlying {@link InstanceProvider}.
+     * @param tenants       {@link Supplier} of the current tenant key.
+     * @param maximumWeight Maximum total weight of the cached instances.
+     * @param weigher       {@link ToLongFunction} weighing each instance.
+     */
+    public TenantProvider(InstanceProvider<T> provider, Supplier<?> tenants, long maximumWeight,
+                          ToLongFunction<Object> weigher) {
+        super(provider);
+        this.tenants = tenants;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        onDestroy(this::destroyAll);
+    }
+    
+    /**
+     * Declares a tenant scope bounded by number of tenants.
+     *
+     * @param annotation  Scope {@link Annotation}.
+     * @param tenants     {@link Supplier} of the current tenant key.
+     * @param maximumSize Maximum cached tenants per binding.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    public static ScopeKey scope(Class<? extends Annotation> annotation, Supplier<?> tenants,
+                                 long maximumSize) {
+        return scope(annotation, tenants, maximumSize, instance -> 1);
+    }
+    
+    /**
+     * Declares a tenant scope bounded by weight.
+     *
+     * @param annotation    Scope {@link Annotation}.
+     * @param tenants       {@link Supplier} of the current tenant key.
+     * @param maximumWeight Maximum total weight of the cached instances per binding.
+     * @param weigher       {@link ToLongFunction} weighing each instance.
+     * @return {@link ScopeKey} to register in the injector.
+     */
+    @SuppressWarnings("unchecked")
+    public static ScopeKey scope(Class<? extends Annotation> annotation, Supplier<?> tenants,
+                                 long maximumWeight, ToLongFunction<Object> weigher) {
+        return new ScopeKey(annotation,
+                provider -> new TenantProvider<>(provider, tenants, maximumWeight, weigher));
+    }
+    
+    @Override
+    public T get() {
+        Object key = tenants.get();
+        if (key == null)
+            throw new InjectException("No tenant in the current context");
+        Tenant<T> tenant;
+        T instance;
+        do {
+            tenant = tenant(key);
+            tenant.accessed = System.nanoTime();
+            // null if the tenant failed while this thread was waiting for it
+            instance = tenant.instance.get(tenant.factory);
+        } while (instance == null);
+        if (!tenant.counted.get() && tenant.counted.compareAndSet(false, true)) {
+            tenant.weight = weigher.applyAsLong(instance);
+            tenant.created = instance;
+            if (weight.addAndGet(tenant.weight) > maximumWeight)
+                evict(tenant);
+        }
+        return instance;
+    }
+    
+    private Tenant<T> tenant(Object key) {
+        Tenant<T> tenant = instances.get(key);
+        if (tenant == null) {
+            Tenant<T> absent = new Tenant<>();
+            absent.factory = () -> create(key, absent);
+            tenant = instances.putIfAbsent(key, absent);
+            if (tenant == null)
+                tenant = absent;
+        }
+        return tenant;
+    }
+    
+    /**
+     * Creates the instance of a tenant. A failure retires the tenant for good, so the threads
+     * already waiting for it retry with a new one instead of creating an instance nobody tracks.
+     */
+    private T create(Object key, Tenant<T> tenant) {
+        if (tenant.failed)
+            return null;
+        try {
+            return detachedInstance(tenant.preDestroy);
+        } catch (RuntimeException | Error e) {
+            tenant.failed = true;
+            instances.remove(key, tenant);
+            throw e;
+        }
+    }
+    
+    /**
+     * Evicts the least recently used of a few sampled tenants, other than the one just created,
+     * until the cache fits its maximum weight.
+     */
+    private void evict(Tenant<T> current) {
+        List<Tenant<T>> evicted = new ArrayList<>();
+        synchronized (weight) {
+            while (weight.get() > maximumWeight) {
+                Map.Entry<Object, Tenant<T>> eldest = sample(current);
+                if (eldest == null || !instances.remove(eldest.getKey(), eldest.getValue()))
+                    break;
+                weight.addAndGet(-eldest.getValue().weight);
+                evicted.add(eldest.getValue());
+            }
+        }
+        for (Tenant<T> tenant : evicted)
+            destroyInstance(tenant.created, tenant.preDestroy);
+    }
+    
+    /**
+     * Picks the least recently used of the next {@value #SAMPLES} evictable tenants, walking
+     * the cache at most once around.
+     */
+    private Map.Entry<Object, Tenant<T>> sample(Tenant<T> current) {
+        Map.Entry<Object, Tenant<T>> eldest = null;
+        boolean wrapped = false;
+        for (int sampled = 0; sampled < SAMPLES; ) {
+            if (!cursor.hasNext()) {
+                if (wrapped)
+                    break;
+                cursor = instances.entrySet().iterator();
+                wrapped = true;
+                continue;
+            }
+            Map.Entry<Object, Tenant<T>> entry = cursor.next();
+            Tenant<T> tenant = entry.getValue();
+            if (tenant == current || tenant.created == null)
+                continue;
+            sampled++;
+            if (eldest == null || tenant.accessed - eldest.getValue().accessed < 0)
+                eldest = entry;
+        }
+        return eldest;
+    }
+    
+    private void destroyAll() {
+        for (Object key : instances.keySet()) {
+            Tenant<T> tenant = instances.remove(key);
+            if (tenant != null && tenant.created != null)
+                destroyInstance(tenant.created, tenant.preDestroy);
+        }
+    }
+    
+}
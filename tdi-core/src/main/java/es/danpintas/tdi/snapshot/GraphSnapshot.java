@@ -0,0 +1,251 @@
+package es.danpintas.tdi.snapshot;
+
+import static es.danpintas.reflect.Types.forName;
+import static es.danpintas.reflect.Types.getTypeHierarchy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.danpintas.tdi.injection.InjectionPoints;
+
+/**
+ * Binary snapshot of the {@link InjectionPoints} analysed by an injector, so the next startup can
+ * look members up by name instead of discovering them reflectively. <br/>
+ * The file is memory-mapped and each entry is only decoded when requested. Entries record the
+ * modification time and size of the file defining every class in the hierarchy, either the class
+ * file or the jar holding it, and are discarded when any of them changed. Classes of the runtime
+ * are stamped with its version instead.
+ *
+ * @author danpintas
+ */
+public final class GraphSnapshot {
+    
+    private static final int MAGIC = 0x54444953;
+    private static final int VERSION = 3;
+    private static final long UNKNOWN_STAMP = -1;
+    private static final long RUNTIME_STAMP = System.getProperty("java.version", "").hashCode();
+    private static final byte FIELD = 0;
+    private static final byte METHOD = 1;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> offsets;
+    
+    private GraphSnapshot(ByteBuffer buffer, Map<String, Integer> offsets) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+    }
+    
+    /**
+     * Loads a snapshot, reading only its index.
+     *
+     * @param path {@link Path} of the snapshot file.
+     * @return Loaded {@link GraphSnapshot}.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public static GraphSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException(path + " is not a compatible snapshot");
+            int count = buffer.getInt();
+            String[] names = new String[count];
+            int[] relative = new int[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = readString(buffer);
+                relative[i] = buffer.getInt();
+            }
+            int base = buffer.position();
+            Map<String, Integer> offsets = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++)
+                offsets.put(names[i], base + relative[i]);
+            return new GraphSnapshot(buffer, offsets);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+    
+    /**
+     * Writes a snapshot, replacing the file atomically.
+     *
+     * @param path    {@link Path} of the snapshot file.
+     * @param entries {@link InjectionPoints} to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path path, Collection<InjectionPoints> entries) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        for (InjectionPoints points : entries) {
+            writeString(indexOut, points.getType().getName());
+            indexOut.writeInt(body.size());
+            writeEntry(bodyOut, points);
+        }
+        
+        ByteArrayOutputStream file = new ByteArrayOutputStream(index.size() + body.size() + 12);
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        index.writeTo(out);
+        body.writeTo(out);
+        
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, file.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static void writeEntry(DataOutputStream out, InjectionPoints points) throws IOException {
+        List<Class<?>> hierarchy = getTypeHierarchy(points.getType());
+        out.writeInt(hierarchy.size());
+        for (Class<?> type : hierarchy) {
+            writeString(out, type.getName());
+            out.writeLong(stamp(type));
+        }
+        writeTypes(out, points.getConstructor().getParameterTypes());
+        out.writeInt(points.getMembers().size());
+        for (Member member : points.getMembers()) {
+            out.writeByte(member instanceof Field ? FIELD : METHOD);
+            out.writeShort(hierarchy.indexOf(member.getDeclaringClass()));
+            writeString(out, member.getName());
+            if (member instanceof Method)
+                writeTypes(out, ((Method) member).getParameterTypes());
+        }
+        writeLifecycle(out, hierarchy, points.getPostConstruct());
+        writeLifecycle(out, hierarchy, points.getPreDestroy());
+    }
+    
+    private static void writeLifecycle(DataOutputStream out, List<Class<?>> hierarchy, Method method)
+            throws IOException {
+        out.writeShort(method != null ? hierarchy.indexOf(method.getDeclaringClass()) : -1);
+        if (method != null)
+            writeString(out, method.getName());
+    }
+    
+    /**
+     * Gets the analysis of a given {@code Class}.
+     *
+     * @param type {@link Class} to look for.
+     * @return {@link InjectionPoints} for {@code type}, or null if missing or stale.
+     */
+    public InjectionPoints get(Class<?> type) {
+        Integer offset = offsets.get(type.getName());
+        if (offset == null)
+            return null;
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset);
+        try {
+            return readEntry(in, type);
+        } catch (ReflectiveOperationException | BufferUnderflowException
+                | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static InjectionPoints readEntry(ByteBuffer in, Class<?> type)
+            throws ReflectiveOperationException {
+        List<Class<?>> hierarchy = getTypeHierarchy(type);
+        if (in.getInt() != hierarchy.size())
+            return null;
+        for (Class<?> c : hierarchy) {
+            long stamp = stamp(c);
+            if (!c.getName().equals(readString(in)) || stamp == UNKNOWN_STAMP
+                    || in.getLong() != stamp)
+                return null;
+        }
+        ClassLoader loader = type.getClassLoader();
+        Constructor<?> constructor = type.getDeclaredConstructor(readTypes(in, loader));
+        int count = in.getInt();
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = in.get();
+            Class<?> declaring = hierarchy.get(in.getShort());
+            String name = readString(in);
+            members.add(kind == FIELD ? declaring.getDeclaredField(name)
+                    : declaring.getDeclaredMethod(name, readTypes(in, loader)));
+        }
+        Method postConstruct = readLifecycle(in, hierarchy);
+        Method preDestroy = readLifecycle(in, hierarchy);
+        return new InjectionPoints(type, constructor, members, postConstruct, preDestroy);
+    }
+    
+    private static Method readLifecycle(ByteBuffer in, List<Class<?>> hierarchy)
+            throws NoSuchMethodException {
+        short declaring = in.getShort();
+        return declaring < 0 ? null : hierarchy.get(declaring).getDeclaredMethod(readString(in));
+    }
+    
+    private static long stamp(Class<?> type) {
+        CodeSource source = type.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null)
+            return RUNTIME_STAMP;
+        try {
+            URI location = source.getLocation().toURI();
+            if (!"file".equals(location.getScheme()))
+                return RUNTIME_STAMP;
+            Path path = Paths.get(location);
+            if (Files.isDirectory(path))
+                path = path.resolve(type.getName().replace('.', '/') + ".class");
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() * 31 + attributes.size();
+        } catch (URISyntaxException | IOException | IllegalArgumentException e) {
+            return UNKNOWN_STAMP;
+        }
+    }
+    
+    private static void writeTypes(DataOutputStream out, Class<?>[] types) throws IOException {
+        out.writeShort(types.length);
+        for (Class<?> type : types)
+            writeString(out, type.getName());
+    }
+    
+    private static Class<?>[] readTypes(ByteBuffer in, ClassLoader loader)
+            throws ClassNotFoundException {
+        Class<?>[] types = new Class<?>[in.getShort()];
+        for (int i = 0; i < types.length; i++)
+            types[i] = forName(readString(in), loader);
+        return types;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+}
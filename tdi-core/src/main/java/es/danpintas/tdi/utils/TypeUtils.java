@@ -7,6 +7,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -14,8 +15,12 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Qualifier;
+import javax.inject.Scope;
 
+import es.danpintas.reflect.Types;
 import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.index.IndexedType;
+import es.danpintas.tdi.index.InjectionIndex;
 
 public final class TypeUtils {
     
@@ -30,6 +35,9 @@ public final class TypeUtils {
      * @return {@link List} with any {@link Inject} {@link Method} for {@code type}.
      */
     public static List<Field> getInjectFields(Class<?> type) {
+        IndexedType indexed = InjectionIndex.lookup(type);
+        if (indexed != null)
+            return new ArrayList<>(indexed.getFields());
         Field[] array = type.getDeclaredFields();
         List<Field> fields = new ArrayList<>(array.length);
         for (Field field : array)
@@ -38,6 +46,35 @@ public final class TypeUtils {
         return fields;
     }
     
+    /**
+     * Gets a {@code List} with the methods of a given {@code Class} which may be injected or override
+     * an injected one: the indexed ones if {@code type} is indexed, every declared one otherwise.
+     *
+     * @param type {@link Class} to get methods for.
+     * @return {@link List} with the candidate {@link Method} elements for {@code type}.
+     */
+    public static List<Method> getInjectCandidateMethods(Class<?> type) {
+        IndexedType indexed = InjectionIndex.lookup(type);
+        if (indexed == null)
+            return Types.getMethods(type);
+        List<Method> methods = new ArrayList<>(indexed.getMethods(Inject.class));
+        methods.addAll(indexed.getOverrides());
+        return methods;
+    }
+    
+    /**
+     * Declares if a given {@code Class} is annotated with a given scope annotation.
+     *
+     * @param type  {@link Class} to check.
+     * @param scope Scope annotation.
+     * @return true if {@code type} is annotated with {@code scope}, false otherwise.
+     */
+    public static boolean isScoped(Class<?> type, Class<? extends Annotation> scope) {
+        IndexedType indexed = InjectionIndex.lookup(type);
+        return indexed != null && scope.isAnnotationPresent(Scope.class) ? indexed.isScoped(scope)
+                : type.isAnnotationPresent(scope);
+    }
+    
     /**
      * Gets one (and only one) {@code PostConstruct} annotated method for a given {@code Type}.
      *
@@ -60,10 +97,12 @@ public final class TypeUtils {
     
     private static Method getOnlyNoArgAnnotatedMethod(Class<?> type,
                                                       Class<? extends Annotation> annotation) {
-        Method[] array = type.getDeclaredMethods();
+        IndexedType indexed = InjectionIndex.lookup(type);
+        Iterable<Method> methods = indexed != null ? indexed.getMethods(annotation)
+                : Arrays.asList(type.getDeclaredMethods());
         Method postConstruct = null;
-        for (Method method : array) {
-            if (method.getDeclaredAnnotation(annotation) != null) {
+        for (Method method : methods) {
+            if (indexed != null || method.getDeclaredAnnotation(annotation) != null) {
                 if (method.getParameterTypes().length > 0)
                     throw new InjectException(type.getName() + " @" + annotation.getSimpleName() + " method "
                             + method.getName() + " has arguments");
@@ -85,11 +124,14 @@ public final class TypeUtils {
      */
     @SuppressWarnings("unchecked")
     public static <T> Constructor<T> getInjectConstructor(Class<T> type) {
+        IndexedType indexed = InjectionIndex.lookup(type);
         List<Constructor<?>> constructors = new ArrayList<>();
-        Constructor<?>[] dc = type.getDeclaredConstructors();
-        for (Constructor<?> c : dc)
-            if (c.isAnnotationPresent(Inject.class))
-                constructors.add(c);
+        if (indexed != null)
+            constructors.addAll(indexed.getConstructors());
+        else
+            for (Constructor<?> c : type.getDeclaredConstructors())
+                if (c.isAnnotationPresent(Inject.class))
+                    constructors.add(c);
         switch (constructors.size()) {
             case 0:
                 return null;
@@ -0,0 +1,60 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Supplier;
+
+/**
+ * Lazily created instance, safely published to every thread once created. <br/>
+ * Reads use acquire semantics instead of a volatile load, which is enough to see a fully
+ * constructed instance and cheaper on weakly ordered hardware.
+ *
+ * @param <T> Instance type.
+ * @author danpintas
+ */
+final class LazyInstance<T> {
+    
+    private static final VarHandle INSTANCE;
+    
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup().findVarHandle(LazyInstance.class, "instance",
+                    Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    @SuppressWarnings("unused")
+    private T instance;
+    
+    /**
+     * Gets the Java release this implementation targets.
+     *
+     * @return Java feature version.
+     */
+    static int release() {
+        return 11;
+    }
+    
+    /**
+     * Gets the instance, creating it on first call.
+     *
+     * @param factory {@link Supplier} creating the instance, called at most once.
+     * @return Instance.
+     */
+    @SuppressWarnings("unchecked")
+    T get(Supplier<? extends T> factory) {
+        T result = (T) INSTANCE.getAcquire(this);
+        if (result == null)
+            synchronized (this) {
+                result = (T) INSTANCE.getAcquire(this);
+                if (result == null) {
+                    result = factory.get();
+                    INSTANCE.setRelease(this, result);
+                }
+            }
+        return result;
+    }
+    
+}
@@ -0,0 +1,66 @@
+package es.danpintas.tdi.providers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lazily created instance, safely published to every thread once created. <br/>
+ * Creation is guarded by a {@link ReentrantLock} instead of a monitor, so virtual threads
+ * waiting for a slow constructor park instead of pinning their carrier thread.
+ *
+ * @param <T> Instance type.
+ * @author danpintas
+ */
+final class LazyInstance<T> {
+    
+    private static final VarHandle INSTANCE;
+    
+    static {
+        try {
+            INSTANCE = MethodHandles.lookup().findVarHandle(LazyInstance.class, "instance",
+                    Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    @SuppressWarnings("unused")
+    private T instance;
+    
+    /**
+     * Gets the Java release this implementation targets.
+     *
+     * @return Java feature version.
+     */
+    static int release() {
+        return 21;
+    }
+    
+    /**
+     * Gets the instance, creating it on first call.
+     *
+     * @param factory {@link Supplier} creating the instance, called at most once.
+     * @return Instance.
+     */
+    @SuppressWarnings("unchecked")
+    T get(Supplier<? extends T> factory) {
+        T result = (T) INSTANCE.getAcquire(this);
+        if (result == null) {
+            lock.lock();
+            try {
+                result = (T) INSTANCE.getAcquire(this);
+                if (result == null) {
+                    result = factory.get();
+                    INSTANCE.setRelease(this, result);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+    
+}
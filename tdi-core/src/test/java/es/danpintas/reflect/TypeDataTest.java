@@ -0,0 +1,52 @@
+package es.danpintas.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TypeData} sharing and member resolution.
+ *
+ * @author danpintas
+ */
+public class TypeDataTest {
+    
+    static class Holder<T> {
+        
+        List<T> values;
+        
+        T get(List<T> in) {
+            return null;
+        }
+        
+    }
+    
+    static class StringHolder extends Holder<String> {
+        
+    }
+    
+    @Test
+    public void classTypeDataIsShared() {
+        assertSame(TypeData.get(String.class), TypeData.get(String.class));
+        assertSame(TypeData.get(String.class), TypeData.get((Type) String.class));
+    }
+    
+    @Test
+    public void resolvesInheritedMemberTypes() throws Exception {
+        TypeData<StringHolder> holder = TypeData.get(StringHolder.class);
+        Field field = Holder.class.getDeclaredField("values");
+        Method method = Holder.class.getDeclaredMethod("get", List.class);
+        
+        Type listOfString = Types.parameterizedType(List.class, String.class);
+        assertEquals(listOfString, holder.getFieldType(field).getType());
+        assertSame(TypeData.get(String.class), holder.getReturnType(method));
+        assertEquals(listOfString, holder.getParameterTypes(method).get(0).getType());
+    }
+    
+}
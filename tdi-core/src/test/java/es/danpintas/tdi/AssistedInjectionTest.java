@@ -0,0 +1,78 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.assisted.Assisted;
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Tests for {@link Binder#bindFactory(Class)}.
+ *
+ * @author danpintas
+ */
+public class AssistedInjectionTest {
+    
+    @Singleton
+    static class Gateway {
+        
+    }
+    
+    static class Payment {
+        
+        final Gateway gateway;
+        final String id;
+        final int amount;
+        
+        @Inject
+        Gateway injected;
+        
+        @Inject
+        Payment(@Assisted String id, Gateway gateway, @Assisted int amount) {
+            this.gateway = gateway;
+            this.id = id;
+            this.amount = amount;
+        }
+        
+    }
+    
+    interface PaymentFactory {
+        
+        Payment create(String id, int amount);
+        
+    }
+    
+    interface WrongFactory {
+        
+        Payment create(int amount, String id);
+        
+    }
+    
+    @Test
+    public void createsWithRuntimeArguments() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Gateway.class);
+            binder.bindFactory(PaymentFactory.class);
+        });
+        PaymentFactory factory = injector.getInstance(PaymentFactory.class);
+        Payment first = factory.create("a", 10);
+        Payment second = factory.create("b", 20);
+        assertEquals("a", first.id);
+        assertEquals(20, second.amount);
+        assertNotSame(first, second);
+        assertSame(injector.getInstance(Gateway.class), first.gateway);
+        assertSame(first.gateway, second.injected);
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsMismatchedMethods() {
+        new BaseInjector(binder -> binder.bindFactory(WrongFactory.class));
+    }
+    
+}
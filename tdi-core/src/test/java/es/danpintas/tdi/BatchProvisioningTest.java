@@ -0,0 +1,108 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.keys.BindingKey;
+
+/**
+ * Tests for {@link Injector#getInstances(BindingKey, int, boolean)}.
+ *
+ * @author danpintas
+ */
+public class BatchProvisioningTest {
+    
+    static final AtomicInteger CLOSED = new AtomicInteger();
+    
+    @Singleton
+    static class Sink {
+        
+    }
+    
+    static class Handler {
+        
+        @Inject
+        Sink sink;
+        
+        @PreDestroy
+        void close() {
+            CLOSED.incrementAndGet();
+        }
+        
+    }
+    
+    static class Flaky {
+        
+        static final AtomicInteger CREATED = new AtomicInteger();
+        
+        Flaky() {
+            if (CREATED.incrementAndGet() == 3)
+                throw new IllegalStateException("third");
+        }
+        
+        @PreDestroy
+        void close() {
+            CLOSED.incrementAndGet();
+        }
+        
+    }
+    
+    @Test
+    public void createsPrototypeBatches() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Sink.class);
+            binder.bind(Handler.class);
+        });
+        List<Handler> handlers = injector.getInstances(Handler.class, 100);
+        List<Handler> parallel = injector.getInstances(
+                new BindingKey<>(TypeData.get(Handler.class), null), 1000, true);
+        Set<Handler> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(handlers);
+        distinct.addAll(parallel);
+        assertEquals(1100, distinct.size());
+        for (Handler handler : parallel)
+            assertSame(injector.getInstance(Sink.class), handler.sink);
+        List<Sink> sinks = injector.getInstances(Sink.class, 3);
+        assertEquals(3, sinks.size());
+        assertSame(sinks.get(0), sinks.get(2));
+        
+        CLOSED.set(0);
+        injector.destroy();
+        assertEquals(1100, CLOSED.get());
+    }
+    
+    @Test
+    public void destroysBatchesFailingHalfway() {
+        Injector injector = new BaseInjector(binder -> binder.bind(Flaky.class));
+        try {
+            injector.getInstances(Flaky.class, 5);
+            fail("Created a batch with a failing constructor");
+        } catch (InjectException e) {
+            // third construction
+        }
+        CLOSED.set(0);
+        injector.destroy();
+        assertEquals(2, CLOSED.get());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeCounts() {
+        new BaseInjector(binder -> binder.bind(Handler.class)).getInstances(Handler.class, -1);
+    }
+    
+}
@@ -0,0 +1,78 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Injector#createChild(Module, Module...)}.
+ *
+ * @author danpintas
+ */
+public class ChildInjectorTest {
+    
+    @Singleton
+    static class Registry {
+        
+    }
+    
+    interface Tenant {
+        
+    }
+    
+    static class DefaultTenant implements Tenant {
+        
+    }
+    
+    static class CustomTenant implements Tenant {
+        
+    }
+    
+    static class Job {
+        
+        @Inject
+        Registry registry;
+        
+        @Inject
+        Tenant tenant;
+        
+        @Inject
+        Injector injector;
+        
+    }
+    
+    @Test
+    public void resolvesOwnBindingsFirst() {
+        Injector parent = new BaseInjector(binder -> {
+            binder.bind(Registry.class);
+            binder.bind(Tenant.class).to(DefaultTenant.class);
+            binder.bind(Job.class);
+        });
+        Injector child = parent.createChild(binder -> {
+            binder.bind(Tenant.class).to(CustomTenant.class);
+            binder.bind(Job.class);
+        });
+        
+        Job parentJob = parent.getInstance(Job.class);
+        Job childJob = child.getInstance(Job.class);
+        assertTrue(parentJob.tenant instanceof DefaultTenant);
+        assertTrue(childJob.tenant instanceof CustomTenant);
+        assertSame(parentJob.registry, childJob.registry);
+        assertSame(parent, parentJob.injector);
+        assertSame(child, childJob.injector);
+    }
+    
+    @Test
+    public void parentDoesNotSeeChildBindings() {
+        Injector parent = new BaseInjector(binder -> binder.bind(Registry.class));
+        Injector child = parent.createChild(binder -> binder.bind(Tenant.class).to(CustomTenant.class));
+        assertSame(parent.getInstance(Registry.class), child.getInstance(Registry.class));
+        assertNull(parent.getProvider(Tenant.class));
+    }
+    
+}
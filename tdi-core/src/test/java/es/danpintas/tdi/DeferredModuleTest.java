@@ -0,0 +1,62 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Tests for {@link Binder#defer(Module, Class...)}.
+ *
+ * @author danpintas
+ */
+public class DeferredModuleTest {
+    
+    interface Console {
+        
+    }
+    
+    @Singleton
+    static class AdminConsole implements Console {
+        
+    }
+    
+    static class Application {
+        
+        @Inject
+        Console console;
+        
+    }
+    
+    @Test
+    public void installsOnFirstRequest() {
+        AtomicInteger installs = new AtomicInteger();
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Application.class);
+            binder.defer(admin -> {
+                installs.incrementAndGet();
+                admin.bind(Console.class).to(AdminConsole.class);
+            }, Console.class);
+        });
+        assertEquals(0, installs.get());
+        Application application = injector.getInstance(Application.class);
+        assertSame(application.console, injector.getInstance(Console.class));
+        assertEquals(1, installs.get());
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsUndeclaredBindings() {
+        new BaseInjector(binder -> binder.defer(admin -> {
+            admin.bind(Console.class).to(AdminConsole.class);
+            admin.bind(Application.class);
+        }, Console.class)).getProvider(Console.class);
+    }
+    
+}
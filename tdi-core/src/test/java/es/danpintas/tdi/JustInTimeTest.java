@@ -0,0 +1,128 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Tests for {@link AbstractInjector#isJustInTime()}.
+ *
+ * @author danpintas
+ */
+public class JustInTimeTest {
+    
+    interface Service {
+        
+    }
+    
+    @Singleton
+    static class Registry {
+        
+        @Inject
+        Provider<Worker> workers;
+        
+    }
+    
+    static class Worker {
+        
+        @Inject
+        Registry registry;
+        
+        @Inject
+        Service service;
+        
+    }
+    
+    static class Unbuildable {
+        
+        Unbuildable(String name) {
+        }
+        
+    }
+    
+    static class Broken {
+        
+        @Inject
+        Unbuildable unbuildable;
+        
+    }
+    
+    private static Injector injector(Module module) {
+        return new BaseInjector(module) {
+            @Override
+            protected boolean isJustInTime() {
+                return true;
+            }
+        };
+    }
+    
+    @Test
+    public void bindsConcreteClasses() {
+        Injector injector = injector(binder -> {
+        });
+        Worker worker = injector.getInstance(Registry.class).workers.get();
+        assertSame(injector.getInstance(Registry.class), worker.registry);
+        assertNull(worker.service);
+        assertNull(injector.getProvider(Service.class));
+        assertNull(new BaseInjector(binder -> {
+        }).getProvider(Worker.class));
+    }
+    
+    @Test
+    public void buildsOneProviderPerKey() throws Exception {
+        Injector injector = injector(binder -> {
+        });
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Provider<Worker>> request = () -> {
+            start.await();
+            return injector.getProvider(Worker.class);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Provider<Worker>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executor.submit(request));
+            start.countDown();
+            Provider<Worker> provider = futures.get(0).get();
+            assertNotNull(provider);
+            for (Future<Provider<Worker>> future : futures)
+                assertSame(provider, future.get());
+            assertSame(provider.get().registry, injector.getInstance(Registry.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void dropsFailedBindings() {
+        Injector injector = injector(binder -> {
+        });
+        for (int i = 0; i < 2; i++)
+            try {
+                injector.getProvider(Broken.class);
+                fail("Linked a binding depending on an unbuildable class");
+            } catch (InjectException e) {
+                // built again on every request
+            }
+        assertNotNull(injector.getProvider(Worker.class));
+    }
+    
+}
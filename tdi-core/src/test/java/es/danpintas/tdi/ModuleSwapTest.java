@@ -0,0 +1,82 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Tests for {@link Injector#swap(Module, Module)}.
+ *
+ * @author danpintas
+ */
+public class ModuleSwapTest {
+    
+    interface Greeter {
+        
+    }
+    
+    @Singleton
+    static class English implements Greeter {
+        
+        boolean destroyed;
+        
+        @PreDestroy
+        void destroy() {
+            destroyed = true;
+        }
+        
+    }
+    
+    static class Spanish implements Greeter {
+        
+    }
+    
+    @Singleton
+    static class Front {
+        
+        @Inject
+        Greeter greeter;
+        
+    }
+    
+    @Singleton
+    static class Audit {
+        
+    }
+    
+    @Test
+    public void relinksAffectedBindings() {
+        Module english = binder -> binder.bind(Greeter.class).to(English.class);
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Front.class);
+            binder.bind(Audit.class);
+        }, english);
+        Front front = injector.getInstance(Front.class);
+        Audit audit = injector.getInstance(Audit.class);
+        English greeter = (English) front.greeter;
+        
+        injector.swap(english, binder -> binder.bind(Greeter.class).to(Spanish.class));
+        
+        assertTrue(greeter.destroyed);
+        assertNotSame(front, injector.getInstance(Front.class));
+        assertTrue(injector.getInstance(Front.class).greeter instanceof Spanish);
+        assertSame(audit, injector.getInstance(Audit.class));
+        assertEquals(Spanish.class, injector.getInstance(Greeter.class).getClass());
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsUnknownModules() {
+        new BaseInjector(binder -> binder.bind(Audit.class))
+                .swap(binder -> binder.bind(Audit.class), binder -> binder.bind(Front.class));
+    }
+    
+}
@@ -0,0 +1,120 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.reflect.Types;
+import es.danpintas.tdi.exceptions.InjectException;
+
+/**
+ * Tests for {@link Binder#addToSet(Class)} and {@link Binder#addToMap(Class, Object, Class)}.
+ *
+ * @author danpintas
+ */
+public class MultibindingsTest {
+    
+    interface Plugin {
+        
+    }
+    
+    @Singleton
+    static class Audit implements Plugin {
+        
+    }
+    
+    static class Metrics implements Plugin {
+        
+    }
+    
+    static class Registry {
+        
+        @Inject
+        Set<Plugin> plugins;
+        
+        @Inject
+        @Named("extra")
+        Set<Plugin> extra;
+        
+        @Inject
+        Map<String, Plugin> byName;
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static final TypeData<Set<Plugin>> PLUGINS = TypeData.get(Types.setOf(Plugin.class));
+    
+    @SuppressWarnings("unchecked")
+    private static final TypeData<Map<String, Plugin>> PLUGINS_BY_NAME =
+            TypeData.get(Types.mapOf(String.class, Plugin.class));
+    
+    @Test
+    public void collectsContributionsFromEveryModule() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Registry.class);
+            binder.addToSet(Plugin.class).to(Audit.class);
+            binder.addToMap(String.class, "audit", Plugin.class).to(Audit.class);
+        }, binder -> {
+            binder.addToSet(Plugin.class).to(Metrics.class);
+            binder.addToSet(Plugin.class).named("extra").to(Metrics.class);
+            binder.addToMap(String.class, "metrics", Plugin.class).to(Metrics.class);
+        });
+        Registry registry = injector.getInstance(Registry.class);
+        assertEquals(2, registry.plugins.size());
+        assertEquals(1, registry.extra.size());
+        assertEquals(Arrays.asList("audit", "metrics"), Arrays.asList(registry.byName.keySet().toArray()));
+        assertTrue(registry.plugins.contains(registry.byName.get("audit")));
+        assertNotSame(registry.plugins, injector.getInstance(PLUGINS));
+    }
+    
+    @Test
+    public void sharesConstantCollections() {
+        Plugin instance = new Metrics();
+        Injector injector = new BaseInjector(binder -> {
+            binder.addToSet(Plugin.class).to(Audit.class);
+            binder.addToSet(Plugin.class).to(instance);
+        });
+        Set<Plugin> plugins = injector.getInstance(PLUGINS);
+        assertSame(plugins, injector.getInstance(PLUGINS));
+        assertEquals(2, plugins.size());
+        assertTrue(plugins.contains(instance));
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsDuplicateKeys() {
+        new BaseInjector(binder -> {
+            binder.addToMap(String.class, "plugin", Plugin.class).to(Audit.class);
+            binder.addToMap(String.class, "plugin", Plugin.class).to(Metrics.class);
+        });
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsSetsAlsoBoundExplicitly() {
+        new BaseInjector(binder -> {
+            binder.bind(PLUGINS).to(Collections.emptySet());
+            binder.addToSet(Plugin.class).to(Audit.class);
+        });
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsMapsAlsoBoundExplicitly() {
+        new BaseInjector(binder -> {
+            binder.bind(PLUGINS_BY_NAME).to(Collections.emptyMap());
+            binder.addToMap(String.class, "audit", Plugin.class).to(Audit.class);
+        });
+    }
+    
+}
@@ -0,0 +1,151 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.reflect.Types;
+import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.utils.Qualifiers;
+
+/**
+ * Tests for {@link AbstractInjector#isParallelInstall()}.
+ *
+ * @author danpintas
+ */
+public class ParallelInstallTest {
+    
+    static class Analysed {
+        
+        @Inject
+        String value;
+        
+    }
+    
+    /**
+     * Defines its own copy of {@link Analysed}, and holds the first lookup of {@link Inject}
+     * through it, made while analysing that copy, until every other loader got there too.
+     */
+    private static final class IsolatingLoader extends ClassLoader {
+        
+        private final CountDownLatch analysing;
+        private volatile boolean concurrent;
+        
+        private IsolatingLoader(CountDownLatch analysing) {
+            super(ParallelInstallTest.class.getClassLoader());
+            this.analysing = analysing;
+        }
+        
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (Inject.class.getName().equals(name)) {
+                analysing.countDown();
+                try {
+                    concurrent = analysing.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (Analysed.class.getName().equals(name)) {
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> type = findLoadedClass(name);
+                    if (type == null) {
+                        byte[] bytes = read(name);
+                        type = defineClass(name, bytes, 0, bytes.length);
+                    }
+                    return type;
+                }
+            }
+            return super.loadClass(name, resolve);
+        }
+        
+        private static byte[] read(String name) {
+            try (InputStream in = ParallelInstallTest.class.getClassLoader()
+                    .getResourceAsStream(name.replace('.', '/') + ".class")) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer))
+                    bytes.write(buffer, 0, read);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static final TypeData<Set<String>> NAMES = TypeData.get(Types.setOf(String.class));
+    
+    private static Injector injector(boolean parallel, Module module, Module... modules) {
+        return new BaseInjector(module, modules) {
+            @Override
+            protected boolean isParallelInstall() {
+                return parallel;
+            }
+        };
+    }
+    
+    private static Module[] modules(int count) {
+        Module[] modules = new Module[count];
+        for (int m = 0; m < count; m++) {
+            String name = "module" + m;
+            modules[m] = binder -> {
+                binder.bind(String.class).named(name).to(name);
+                binder.addToSet(String.class).to(name);
+            };
+        }
+        return modules;
+    }
+    
+    @Test
+    public void matchesSerialInstallation() {
+        Module[] modules = modules(200);
+        Injector serial = injector(false, binder -> {
+        }, modules);
+        Injector parallel = injector(true, binder -> {
+        }, modules);
+        List<String> names = new ArrayList<>();
+        for (int m = 0; m < modules.length; m++)
+            names.add(parallel.getInstance(new BindingKey<>(TypeData.get(String.class),
+                    Qualifiers.named("module" + m))));
+        assertEquals(names, new ArrayList<>(serial.getInstance(NAMES)));
+        assertEquals(names, new ArrayList<>(parallel.getInstance(NAMES)));
+    }
+    
+    @Test
+    public void analysesImplementationsConcurrently() throws ClassNotFoundException {
+        CountDownLatch analysing = new CountDownLatch(2);
+        IsolatingLoader firstLoader = new IsolatingLoader(analysing);
+        IsolatingLoader secondLoader = new IsolatingLoader(analysing);
+        Class<?> first = firstLoader.loadClass(Analysed.class.getName());
+        Class<?> second = secondLoader.loadClass(Analysed.class.getName());
+        Injector injector = injector(true, binder -> binder.bind(String.class).to("value"),
+                binder -> binder.bind(first), binder -> binder.bind(second));
+        assertTrue("Implementations analysed one by one",
+                firstLoader.concurrent && secondLoader.concurrent);
+        assertSame(first, injector.getInstance(first).getClass());
+    }
+    
+    @Test(expected = InjectException.class)
+    public void rejectsDuplicateBindings() {
+        injector(true, binder -> binder.bind(String.class).to("a"),
+                binder -> binder.bind(String.class).to("b"));
+    }
+    
+}
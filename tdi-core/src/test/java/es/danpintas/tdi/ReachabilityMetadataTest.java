@@ -0,0 +1,111 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.inject.Inject;
+import javax.inject.Qualifier;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.assisted.Assisted;
+
+/**
+ * Tests for {@link AbstractInjector#getReachabilityMetadataPath()}.
+ *
+ * @author danpintas
+ */
+public class ReachabilityMetadataTest {
+    
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Primary {
+        
+    }
+    
+    static class Store {
+        
+    }
+    
+    static class Order {
+        
+        @Inject
+        @Primary
+        Store store;
+        
+        @Inject
+        Order(@Assisted String id) {
+        }
+        
+    }
+    
+    interface OrderFactory {
+        
+        Order create(String id);
+        
+    }
+    
+    private static String read(Path path) throws Exception {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void writesBoundGraph() throws Exception {
+        Path directory = Files.createTempDirectory("tdi");
+        Path reflectConfig = directory.resolve("reflect-config.json");
+        Path proxyConfig = directory.resolve("proxy-config.json");
+        try {
+            check(directory, reflectConfig, proxyConfig);
+        } finally {
+            Files.deleteIfExists(reflectConfig);
+            Files.deleteIfExists(proxyConfig);
+            Files.delete(directory);
+        }
+    }
+    
+    private static void check(Path directory, Path reflectConfig, Path proxyConfig)
+            throws Exception {
+        new BaseInjector(binder -> {
+            binder.bind(Store.class).annotated(Primary.class);
+            binder.bindFactory(OrderFactory.class);
+        }) {
+            @Override
+            protected Path getReachabilityMetadataPath() {
+                return directory;
+            }
+        };
+        String reflect = read(reflectConfig);
+        String proxy = read(proxyConfig);
+        assertTrue(reflect.contains("\"name\": \"" + Order.class.getName() + "\",\n"
+                + "    \"allDeclaredConstructors\": true"));
+        assertTrue(reflect.contains(Store.class.getName()));
+        assertTrue(proxy.contains(OrderFactory.class.getName()));
+        assertTrue(proxy.contains(Primary.class.getName()));
+        assertFalse(proxy.contains(Store.class.getName()));
+    }
+    
+    @Test
+    public void ignoresUnwritableDirectory() throws Exception {
+        Path file = Files.createTempFile("tdi", ".json");
+        try {
+            Injector injector = new BaseInjector(binder -> binder.bind(Store.class)) {
+                @Override
+                protected Path getReachabilityMetadataPath() {
+                    return file;
+                }
+            };
+            assertNotNull(injector.getInstance(Store.class));
+            injector.destroy();
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+}
@@ -0,0 +1,164 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Scope;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.providers.RefreshAheadProvider;
+
+/**
+ * Tests for {@link RefreshAheadProvider}.
+ *
+ * @author danpintas
+ */
+public class RefreshAheadScopeTest {
+    
+    @Scope
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Refreshed {
+        
+    }
+    
+    @Refreshed
+    static class Routes {
+        
+        boolean destroyed;
+        
+        @PreDestroy
+        void close() {
+            destroyed = true;
+        }
+        
+    }
+    
+    @Refreshed
+    static class Config {
+        
+        static volatile boolean failing;
+        static final AtomicInteger BUILDS = new AtomicInteger();
+        
+        boolean destroyed;
+        
+        Config() {
+            BUILDS.incrementAndGet();
+            if (failing)
+                throw new IllegalStateException("unavailable");
+        }
+        
+        @PreDestroy
+        void close() {
+            destroyed = true;
+        }
+        
+    }
+    
+    static class Session {
+        
+        static final AtomicInteger OPENED = new AtomicInteger();
+        static final AtomicInteger CLOSED = new AtomicInteger();
+        
+        Session() {
+            OPENED.incrementAndGet();
+        }
+        
+        @PreDestroy
+        void close() {
+            CLOSED.incrementAndGet();
+        }
+        
+    }
+    
+    @Refreshed
+    static class Client {
+        
+        @Inject
+        Session session;
+        
+    }
+    
+    private static Injector injector(Module module, long timeToLive) {
+        return new BaseInjector(module) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{
+                        RefreshAheadProvider.scope(Refreshed.class, timeToLive,
+                                TimeUnit.MILLISECONDS, Runnable::run)};
+            }
+        };
+    }
+    
+    @Test
+    public void rebuildsBeforeExpiry() throws Exception {
+        Injector injector = injector(binder -> binder.bind(Routes.class), 400);
+        Routes first = injector.getInstance(Routes.class);
+        assertSame(first, injector.getInstance(Routes.class));
+        Thread.sleep(320);
+        
+        assertSame(first, injector.getInstance(Routes.class));
+        Routes second = injector.getInstance(Routes.class);
+        assertNotSame(first, second);
+        assertTrue(first.destroyed);
+        
+        injector.destroy();
+        assertTrue(second.destroyed);
+    }
+    
+    @Test
+    public void backsOffFailedRebuildsAndBlocksOnExpiry() throws Exception {
+        Injector injector = injector(binder -> binder.bind(Config.class), 400);
+        Config first = injector.getInstance(Config.class);
+        Config.failing = true;
+        Thread.sleep(320);
+        
+        assertSame(first, injector.getInstance(Config.class));
+        assertSame(first, injector.getInstance(Config.class));
+        assertEquals(2, Config.BUILDS.get());
+        Thread.sleep(100);
+        
+        try {
+            injector.getInstance(Config.class);
+            fail("Served an expired instance");
+        } catch (RuntimeException e) {
+            // rebuilt in the reading thread
+        }
+        Config.failing = false;
+        Config second = injector.getInstance(Config.class);
+        assertNotSame(first, second);
+        assertTrue(first.destroyed);
+    }
+    
+    @Test
+    public void destroysInjectedPrototypesWithEachReplacedInstance() throws Exception {
+        Injector injector = injector(binder -> {
+            binder.bind(Session.class);
+            binder.bind(Client.class);
+        }, 40);
+        int opened = Session.OPENED.get();
+        int closed = Session.CLOSED.get();
+        Client client = injector.getInstance(Client.class);
+        for (int refresh = 1; refresh <= 3; refresh++) {
+            Thread.sleep(50);
+            assertNotSame(client, client = injector.getInstance(Client.class));
+            assertEquals(refresh, Session.CLOSED.get() - closed);
+            assertEquals(refresh + 1, Session.OPENED.get() - opened);
+        }
+        
+        injector.destroy();
+        assertEquals(Session.OPENED.get() - opened, Session.CLOSED.get() - closed);
+    }
+    
+}
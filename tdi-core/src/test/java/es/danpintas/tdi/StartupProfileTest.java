@@ -0,0 +1,101 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.profile.StartupProfile;
+
+/**
+ * Tests for {@link AbstractInjector#getProfilePath()}.
+ *
+ * @author danpintas
+ */
+public class StartupProfileTest {
+    
+    static volatile boolean created;
+    static boolean destroyed;
+    
+    @Singleton
+    static class Cache {
+        
+        Cache() {
+            created = true;
+        }
+        
+    }
+    
+    static class Request {
+        
+        @PreDestroy
+        void close() {
+            destroyed = true;
+        }
+        
+    }
+    
+    private static Injector injector(Path profile) {
+        return new BaseInjector(binder -> {
+            binder.bind(Request.class);
+            binder.bind(Cache.class);
+        }) {
+            @Override
+            protected Path getProfilePath() {
+                return profile;
+            }
+            
+            @Override
+            protected boolean isProfileProvisioning() {
+                return true;
+            }
+        };
+    }
+    
+    @Test
+    public void recordsAndReplaysProvisionOrder() throws Exception {
+        Path profile = Files.createTempFile("tdi", ".profile");
+        Files.delete(profile);
+        try {
+            Injector recording = injector(profile);
+            recording.getInstance(Request.class);
+            recording.getInstance(Cache.class);
+            recording.destroy();
+            
+            List<StartupProfile.Entry> entries = StartupProfile.read(profile);
+            assertEquals(2, entries.size());
+            assertEquals(Request.class.getName(), entries.get(0).getType());
+            assertEquals(Singleton.class.getName(), entries.get(1).getScope());
+            
+            created = false;
+            injector(profile);
+            for (int i = 0; i < 100 && !created; i++)
+                Thread.sleep(10);
+            assertTrue(created);
+        } finally {
+            Files.deleteIfExists(profile);
+        }
+    }
+    
+    @Test
+    public void destroysDespiteUnwritableProfile() throws Exception {
+        Path profile = Files.createTempDirectory("tdi");
+        try {
+            Injector injector = injector(profile);
+            injector.getInstance(Request.class);
+            destroyed = false;
+            injector.destroy();
+            assertTrue(destroyed);
+        } finally {
+            Files.delete(profile);
+        }
+    }
+    
+}
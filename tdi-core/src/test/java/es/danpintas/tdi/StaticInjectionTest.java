@@ -0,0 +1,55 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+/**
+ * Tests for the order of static injection.
+ *
+ * @author danpintas
+ */
+public class StaticInjectionTest {
+    
+    static final List<String> ORDER = new ArrayList<>();
+    
+    static class Base {
+        
+        @Inject
+        static String baseField;
+        
+        @Inject
+        static void baseMethod(String value) {
+            ORDER.add("base " + (baseField != null) + " " + (Sub.subField != null));
+        }
+        
+    }
+    
+    static class Sub extends Base {
+        
+        @Inject
+        static String subField;
+        
+        @Inject
+        static void subMethod(String value) {
+            ORDER.add("sub " + (baseField != null) + " " + (subField != null));
+        }
+        
+    }
+    
+    @Test
+    public void injectsSupertypesFirstAndFieldsBeforeMethods() {
+        new BaseInjector(binder -> {
+            binder.bind(String.class).to("value");
+            binder.bind(Sub.class);
+        });
+        assertEquals(Arrays.asList("base true false", "sub true true"), ORDER);
+    }
+    
+}
@@ -0,0 +1,145 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Scope;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.providers.StripedProvider;
+
+/**
+ * Tests for {@link StripedProvider}.
+ *
+ * @author danpintas
+ */
+public class StripedScopeTest {
+    
+    @Scope
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Striped {
+        
+    }
+    
+    @Striped
+    static class Digester {
+        
+        final AtomicBoolean busy = new AtomicBoolean();
+        boolean closed;
+        
+        @PreDestroy
+        void close() {
+            closed = true;
+        }
+        
+    }
+    
+    private static Injector injector(int stripes) {
+        return new BaseInjector(binder -> binder.bind(Digester.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{StripedProvider.scope(Striped.class, stripes)};
+            }
+        };
+    }
+    
+    private static Digester onNewThread(Injector injector) throws InterruptedException {
+        Digester[] digester = new Digester[1];
+        Thread thread = new Thread(() -> digester[0] = injector.getInstance(Digester.class));
+        thread.start();
+        thread.join();
+        return digester[0];
+    }
+    
+    @Test
+    public void reusesInstancePerThread() {
+        Injector injector = injector(4);
+        Digester digester = injector.getInstance(Digester.class);
+        assertSame(digester, injector.getInstance(Digester.class));
+        
+        injector.destroy();
+        assertTrue(digester.closed);
+    }
+    
+    @Test
+    public void boundsInstancesByStripes() throws InterruptedException {
+        Injector injector = injector(3);
+        Set<Digester> digesters = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<>()));
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 64; t++)
+            executor.execute(() -> digesters.add(injector.getInstance(Digester.class)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        assertTrue(digesters.size() <= 4);
+    }
+    
+    @Test
+    public void confinesInstancesToThreads() throws InterruptedException {
+        int threads = 8;
+        Injector injector = injector(threads);
+        Set<Digester> digesters = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<>()));
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        AtomicBoolean shared = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++)
+            executor.execute(() -> {
+                try {
+                    for (int round = 0; round < 100; round++) {
+                        Digester digester = injector.getInstance(Digester.class);
+                        digesters.add(digester);
+                        if (digester.busy.getAndSet(true))
+                            shared.set(true);
+                        barrier.await();
+                        digester.busy.set(false);
+                        barrier.await();
+                    }
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    shared.set(true);
+                }
+            });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        assertFalse(shared.get());
+        assertEquals(threads, digesters.size());
+    }
+    
+    @Test
+    public void sharesOverflowInstanceBeyondStripes() throws InterruptedException {
+        Injector injector = injector(1);
+        Digester owned = injector.getInstance(Digester.class);
+        Digester overflow = onNewThread(injector);
+        assertNotSame(owned, overflow);
+        assertSame(overflow, onNewThread(injector));
+    }
+    
+    @Test
+    public void handsStripesOfFinishedThreadsOver() throws InterruptedException {
+        Injector injector = injector(1);
+        Digester digester = onNewThread(injector);
+        assertSame(digester, onNewThread(injector));
+        assertSame(digester, injector.getInstance(Digester.class));
+    }
+    
+}
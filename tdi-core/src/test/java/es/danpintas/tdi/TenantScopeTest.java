@@ -0,0 +1,220 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Scope;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.exceptions.InjectException;
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.providers.TenantProvider;
+
+/**
+ * Tests for {@link TenantProvider}.
+ *
+ * @author danpintas
+ */
+public class TenantScopeTest {
+    
+    @Scope
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface PerTenant {
+        
+    }
+    
+    @PerTenant
+    static class Ledger {
+        
+        boolean closed;
+        
+        @PreDestroy
+        void close() {
+            closed = true;
+        }
+        
+    }
+    
+    static class Connection {
+        
+        static final AtomicInteger OPENED = new AtomicInteger();
+        static final AtomicInteger CLOSED = new AtomicInteger();
+        
+        Connection() {
+            OPENED.incrementAndGet();
+        }
+        
+        @PreDestroy
+        void close() {
+            CLOSED.incrementAndGet();
+        }
+        
+    }
+    
+    @PerTenant
+    static class Repository {
+        
+        @Inject
+        Connection connection;
+        
+    }
+    
+    @PerTenant
+    static class Session {
+        
+        static final CountDownLatch CONSTRUCTING = new CountDownLatch(1);
+        static final CountDownLatch FAILING = new CountDownLatch(1);
+        static final AtomicBoolean FIRST = new AtomicBoolean(true);
+        
+        boolean closed;
+        
+        Session() throws InterruptedException {
+            if (FIRST.getAndSet(false)) {
+                CONSTRUCTING.countDown();
+                FAILING.await();
+                throw new IllegalStateException("unavailable");
+            }
+        }
+        
+        @PreDestroy
+        void close() {
+            closed = true;
+        }
+        
+    }
+    
+    private static final AtomicReference<String> TENANT = new AtomicReference<>();
+    
+    private static Ledger ledger(Injector injector, String tenant) {
+        TENANT.set(tenant);
+        return injector.getInstance(Ledger.class);
+    }
+    
+    @Test
+    public void evictsLeastRecentlyUsedTenants() {
+        Injector injector = new BaseInjector(binder -> binder.bind(Ledger.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{TenantProvider.scope(PerTenant.class, TENANT::get, 2)};
+            }
+        };
+        Ledger a = ledger(injector, "a");
+        Ledger b = ledger(injector, "b");
+        assertNotSame(a, b);
+        assertSame(a, ledger(injector, "a"));
+        
+        Ledger c = ledger(injector, "c");
+        assertTrue(b.closed);
+        assertFalse(a.closed);
+        assertSame(a, ledger(injector, "a"));
+        assertSame(c, ledger(injector, "c"));
+        
+        injector.destroy();
+        assertTrue(a.closed && c.closed);
+    }
+    
+    @Test
+    public void boundsManyTenants() {
+        Injector injector = new BaseInjector(binder -> binder.bind(Ledger.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{TenantProvider.scope(PerTenant.class, TENANT::get, 100)};
+            }
+        };
+        List<Ledger> ledgers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            ledgers.add(ledger(injector, "tenant" + i));
+        int closed = 0;
+        for (Ledger ledger : ledgers)
+            if (ledger.closed)
+                closed++;
+        assertEquals(900, closed);
+        assertFalse(ledgers.get(999).closed);
+    }
+    
+    @Test
+    public void destroysInjectedPrototypesWithEachEvictedTenant() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Connection.class);
+            binder.bind(Repository.class);
+        }) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{TenantProvider.scope(PerTenant.class, TENANT::get, 1)};
+            }
+        };
+        int opened = Connection.OPENED.get();
+        int closed = Connection.CLOSED.get();
+        for (int i = 0; i < 10; i++) {
+            TENANT.set("tenant" + i);
+            injector.getInstance(Repository.class);
+        }
+        assertEquals(10, Connection.OPENED.get() - opened);
+        assertEquals(9, Connection.CLOSED.get() - closed);
+        
+        injector.destroy();
+        assertEquals(10, Connection.CLOSED.get() - closed);
+    }
+    
+    @Test
+    public void retriesFailedTenantWithTrackedInstance() throws Exception {
+        Injector injector = new BaseInjector(binder -> binder.bind(Session.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{TenantProvider.scope(PerTenant.class, TENANT::get, 10)};
+            }
+        };
+        TENANT.set("session");
+        AtomicReference<InjectException> failure = new AtomicReference<>();
+        Thread failing = new Thread(() -> {
+            try {
+                injector.getInstance(Session.class);
+            } catch (InjectException e) {
+                failure.set(e);
+            }
+        });
+        failing.start();
+        Session.CONSTRUCTING.await();
+        AtomicReference<Session> waited = new AtomicReference<>();
+        Thread waiting = new Thread(() -> waited.set(injector.getInstance(Session.class)));
+        waiting.start();
+        while (waiting.getState() != Thread.State.BLOCKED
+                && waiting.getState() != Thread.State.WAITING)
+            Thread.sleep(1);
+        Session.FAILING.countDown();
+        failing.join();
+        waiting.join();
+        
+        assertTrue(failure.get().getCause().getCause() instanceof IllegalStateException);
+        Session session = waited.get();
+        assertSame(session, injector.getInstance(Session.class));
+        injector.destroy();
+        assertTrue(session.closed);
+    }
+    
+    @Test(expected = InjectException.class)
+    public void requiresTenant() {
+        new BaseInjector(binder -> binder.bind(Ledger.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{TenantProvider.scope(PerTenant.class, () -> null, 2)};
+            }
+        }.getInstance(Ledger.class);
+    }
+    
+}
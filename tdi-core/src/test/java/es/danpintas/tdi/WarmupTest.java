@@ -0,0 +1,104 @@
+package es.danpintas.tdi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Injector#warmup(int)}.
+ *
+ * @author danpintas
+ */
+public class WarmupTest {
+    
+    static boolean initialized;
+    static int handlers;
+    static int sessions;
+    static int connections;
+    static int closedConnections;
+    
+    static class Repository {
+        
+        static {
+            initialized = true;
+        }
+        
+    }
+    
+    static class Handler {
+        
+        @Inject
+        Repository repository;
+        
+        Handler() {
+            handlers++;
+        }
+        
+    }
+    
+    static class Session {
+        
+        Session() {
+            sessions++;
+        }
+        
+        @PreDestroy
+        void close() {
+        }
+        
+    }
+    
+    static class Connection {
+        
+        Connection() {
+            connections++;
+        }
+        
+        @PreDestroy
+        void close() {
+            closedConnections++;
+        }
+        
+    }
+    
+    static class Worker {
+        
+        @Inject
+        Connection connection;
+        
+    }
+    
+    @Test
+    public void provisionsPrototypes() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Repository.class);
+            binder.bind(Handler.class);
+            binder.bind(Session.class);
+        });
+        assertFalse(initialized);
+        injector.warmup(3);
+        assertTrue(initialized);
+        assertEquals(3, handlers);
+        assertEquals(0, sessions);
+    }
+    
+    @Test
+    public void destroysDiscardedDependencies() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Worker.class);
+            binder.bind(Connection.class);
+        });
+        injector.warmup(2);
+        assertEquals(2, connections);
+        assertEquals(2, closedConnections);
+        injector.getInstance(Worker.class);
+        injector.destroy();
+        assertEquals(3, closedConnections);
+    }
+    
+}
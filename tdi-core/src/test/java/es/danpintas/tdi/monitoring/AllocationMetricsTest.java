@@ -0,0 +1,96 @@
+package es.danpintas.tdi.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Binder;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * Tests for {@link AllocationMetrics}.
+ *
+ * @author danpintas
+ */
+public class AllocationMetricsTest {
+    
+    private static final int LEAF_BYTES = 1 << 19;
+    private static final int ROOT_BYTES = 1 << 20;
+    
+    static class Leaf {
+        
+        final byte[] data = new byte[LEAF_BYTES];
+        
+    }
+    
+    static class Root {
+        
+        final byte[] data = new byte[ROOT_BYTES];
+        
+        @Inject
+        Leaf leaf;
+        
+    }
+    
+    private static void bind(Binder binder) {
+        binder.bind(Leaf.class);
+        binder.bind(Root.class);
+    }
+    
+    private static AllocationStatistics statistics(AllocationMetrics metrics, Class<?> type) {
+        return metrics.getStatistics(new ProviderKey<>(TypeData.get(type), null));
+    }
+    
+    @Test
+    public void attributesNestedAllocations() {
+        AllocationMetrics metrics = new AllocationMetrics();
+        Injector injector = new BaseInjector(AllocationMetricsTest::bind) {
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{metrics};
+            }
+        };
+        injector.getInstance(Root.class);
+        
+        AllocationStatistics root = statistics(metrics, Root.class);
+        AllocationStatistics leaf = statistics(metrics, Leaf.class);
+        assertEquals(1, root.getCount());
+        assertEquals(1, leaf.getCount());
+        assertTrue(leaf.getInclusiveBytes() >= LEAF_BYTES);
+        assertEquals(leaf.getInclusiveBytes(), leaf.getExclusiveBytes());
+        assertTrue(root.getInclusiveBytes() >= ROOT_BYTES + LEAF_BYTES);
+        assertTrue(root.getExclusiveBytes() >= ROOT_BYTES);
+        assertEquals(root.getInclusiveBytes() - leaf.getInclusiveBytes(), root.getExclusiveBytes());
+        assertEquals(Long.valueOf(root.getExclusiveBytes()),
+                metrics.getExclusiveBytes().get(Root.class.getName()));
+        
+        metrics.reset();
+        assertEquals(0, root.getInclusiveBytes());
+        injector.destroy();
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void rejectsPlainThreadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        new AllocationMetrics((java.lang.management.ThreadMXBean) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{java.lang.management.ThreadMXBean.class},
+                (proxy, method, args) -> method.invoke(bean, args)));
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void rejectsUnsupportedAllocationCounter() {
+        new AllocationMetrics((com.sun.management.ThreadMXBean) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{com.sun.management.ThreadMXBean.class},
+                (proxy, method, args) -> false));
+    }
+    
+}
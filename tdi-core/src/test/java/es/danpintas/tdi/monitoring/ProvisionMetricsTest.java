@@ -0,0 +1,100 @@
+package es.danpintas.tdi.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Binder;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.keys.ProviderKey;
+
+/**
+ * Tests for {@link ProvisionMetrics}.
+ *
+ * @author danpintas
+ */
+public class ProvisionMetricsTest {
+    
+    static class Leaf {
+        
+        @PostConstruct
+        void init() {
+            // lifecycle callback to be measured
+        }
+        
+    }
+    
+    @Singleton
+    static class Root {
+        
+        @Inject
+        Leaf leaf;
+        
+    }
+    
+    private static void bind(Binder binder) {
+        binder.bind(Leaf.class);
+        binder.bind(Root.class);
+    }
+    
+    private static ProviderKey<?> key(Class<?> type, Class<? extends Annotation> scope) {
+        return new ProviderKey<>(TypeData.get(type), scope);
+    }
+    
+    @Test
+    public void countsInstancesPerProvider() {
+        ProvisionMetrics metrics = new ProvisionMetrics();
+        Injector injector = new BaseInjector(ProvisionMetricsTest::bind) {
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{metrics};
+            }
+        };
+        injector.getInstance(Root.class);
+        injector.getInstance(Root.class);
+        injector.getInstance(Leaf.class);
+        
+        assertEquals(2, metrics.getHistogram(ProvisionStage.PROVISION, key(Leaf.class, null))
+                .getCount());
+        assertEquals(1, metrics.getHistogram(ProvisionStage.SCOPED, key(Root.class, Singleton.class))
+                .getCount());
+        assertEquals(2, metrics.getHistogram(ProvisionStage.POST_CONSTRUCT, key(Leaf.class, null))
+                .getCount());
+        assertEquals(Long.valueOf(1), metrics.getInstancesCreated().get(Root.class.getName() + " @Singleton"));
+        injector.destroy();
+    }
+    
+    @Test
+    public void registersMBeanUntilDestroyed() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("es.danpintas.tdi:type=ProvisionMetrics,*");
+        int before = server.queryNames(query, null).size();
+        Injector injector = new BaseInjector(ProvisionMetricsTest::bind) {
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{new ProvisionMetrics()};
+            }
+        };
+        injector.getInstance(Root.class);
+        Set<ObjectName> names = server.queryNames(query, null);
+        assertEquals(before + 1, names.size());
+        for (ObjectName name : names)
+            assertTrue(server.getAttribute(name, "ProvisionLatencies") != null);
+        injector.destroy();
+        assertEquals(before, server.queryNames(query, null).size());
+    }
+    
+}
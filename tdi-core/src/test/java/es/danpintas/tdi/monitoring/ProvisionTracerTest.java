@@ -0,0 +1,130 @@
+package es.danpintas.tdi.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Binder;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.Module;
+import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.utils.Qualifiers;
+
+/**
+ * Tests for {@link ProvisionTracer}.
+ *
+ * @author danpintas
+ */
+public class ProvisionTracerTest {
+    
+    static class Leaf {
+        
+    }
+    
+    static class Branch {
+        
+        @Inject
+        Leaf first;
+        
+        @Inject
+        Leaf second;
+        
+    }
+    
+    static class Root {
+        
+        @Inject
+        Root(Branch branch, Leaf leaf) {
+            // constructor injection
+        }
+        
+    }
+    
+    interface Service {
+        
+    }
+    
+    static class DefaultService implements Service {
+        
+    }
+    
+    private static void bind(Binder binder) {
+        binder.bind(Leaf.class);
+        binder.bind(Branch.class);
+        binder.bind(Root.class);
+    }
+    
+    private static Injector injector(ProvisionTracer tracer) {
+        return injector(tracer, ProvisionTracerTest::bind);
+    }
+    
+    private static Injector injector(ProvisionTracer tracer, Module module) {
+        return new BaseInjector(module) {
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{tracer};
+            }
+        };
+    }
+    
+    @Test
+    public void recordsProvisioningTree() {
+        ProvisionTracer tracer = new ProvisionTracer(1, 10);
+        injector(tracer).getInstance(Root.class);
+        
+        List<ProvisionTrace> traces = tracer.getTraces();
+        assertEquals(1, traces.size());
+        ProvisionTrace root = traces.get(0);
+        assertEquals(Root.class, root.getKey().getTypeData().getRawType());
+        assertEquals(5, root.getProvisions());
+        assertEquals(2, root.getChildren().size());
+        assertEquals(2, root.getChildren().get(0).getChildren().size());
+        assertTrue(root.getInclusiveNanos() >= root.getExclusiveNanos());
+        
+        assertTrue(tracer.toJson().startsWith("[{\"key\":\"" + Root.class.getName() + "\""));
+        String stacks = tracer.toCollapsedStacks();
+        assertTrue(stacks.contains(Root.class.getName() + ';' + Branch.class.getName() + ';'
+                + Leaf.class.getName() + ' '));
+    }
+    
+    @Test
+    public void namesNodesByBindingAndEscapesJson() {
+        ProvisionTracer tracer = new ProvisionTracer(1, 10);
+        String name = "line\n\"quoted\"";
+        BindingKey<Service> key = new BindingKey<>(TypeData.get(Service.class),
+                Qualifiers.named(name));
+        injector(tracer, binder -> binder.bind(Service.class).named(name).to(DefaultService.class))
+                .getInstance(key);
+        
+        ProvisionTrace trace = tracer.getTraces().get(0);
+        assertEquals(key, trace.getBinding());
+        assertEquals(DefaultService.class, trace.getKey().getTypeData().getRawType());
+        String json = tracer.toJson();
+        assertTrue(json.contains("line\\u000a\\\"quoted\\\""));
+        assertTrue(json.contains("\"implementation\":\"" + DefaultService.class.getName() + '"'));
+        assertFalse(tracer.toCollapsedStacks().trim().contains("\n"));
+        assertTrue(tracer.toCollapsedStacks().startsWith(Service.class.getName()));
+    }
+    
+    @Test
+    public void keepsOnlySampledAndLatest() {
+        ProvisionTracer none = new ProvisionTracer(0, 10);
+        injector(none).getInstance(Root.class);
+        assertTrue(none.getTraces().isEmpty());
+        
+        ProvisionTracer bounded = new ProvisionTracer(1, 2);
+        Injector injector = injector(bounded);
+        for (int i = 0; i < 5; i++)
+            injector.getInstance(Leaf.class);
+        assertEquals(2, bounded.getTraces().size());
+    }
+    
+}
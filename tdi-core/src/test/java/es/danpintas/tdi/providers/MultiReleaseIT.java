@@ -0,0 +1,43 @@
+package es.danpintas.tdi.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Injector;
+
+/**
+ * Tests the classes selected from the multi-release jar by the running JDK.
+ *
+ * @author danpintas
+ */
+public class MultiReleaseIT {
+    
+    @Singleton
+    static class Service {
+        
+    }
+    
+    private static int getFeatureVersion() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+    
+    @Test
+    public void selectsRuntimeImplementation() {
+        int feature = getFeatureVersion();
+        int expected = feature >= 21 ? 21 : feature >= 11 ? 11 : 8;
+        assertEquals(expected, LazyInstance.release());
+    }
+    
+    @Test
+    public void publishesSingletons() {
+        Injector injector = new BaseInjector(binder -> binder.bind(Service.class));
+        assertSame(injector.getInstance(Service.class), injector.getInstance(Service.class));
+    }
+    
+}
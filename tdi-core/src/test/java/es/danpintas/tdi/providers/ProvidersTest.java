@@ -0,0 +1,94 @@
+package es.danpintas.tdi.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.injection.FieldInjector;
+
+/**
+ * Tests for {@link Providers}.
+ *
+ * @author danpintas
+ */
+public class ProvidersTest {
+    
+    static class Holder {
+        
+        String constant;
+        Object prototype;
+        
+    }
+    
+    @Test
+    public void flattensOnlyPlainPrototypes() {
+        assertNull(Providers.flatten(new PrototypeProvider<>(null)));
+        Provider<Object> counting = new PrototypeProvider<Object>(null) {
+            @Override
+            public Object get() {
+                return super.get();
+            }
+        };
+        assertSame(counting, Providers.flatten(counting));
+        assertNull(Providers.flatten(null));
+    }
+    
+    @Test
+    public void treatsOnlyPlainSingletonsAsConstant() {
+        assertTrue(Providers.isConstant(new ConstantProvider<>(new Object())));
+        assertTrue(Providers.isConstant(new SingletonProvider<>(null)));
+        assertFalse(Providers.isConstant(new SingletonProvider<Object>(null) {
+            @Override
+            public Object get() {
+                return new Object();
+            }
+        }));
+        assertFalse(Providers.isConstant(null));
+    }
+    
+    @Test
+    public void injectsConstantsAndPrototypesIntoFields() throws NoSuchFieldException {
+        AtomicInteger provisions = new AtomicInteger();
+        Provider<Object> prototype = new PrototypeProvider<Object>(null) {
+            @Override
+            public Object get() {
+                provisions.incrementAndGet();
+                return new Object();
+            }
+        };
+        AtomicInteger lookups = new AtomicInteger();
+        TypeData<Holder> holder = TypeData.get(Holder.class);
+        FieldInjector constant = new FieldInjector(holder, key -> {
+            lookups.incrementAndGet();
+            return new ConstantProvider<>("value");
+        }, Holder.class.getDeclaredField("constant"));
+        FieldInjector prototyped = new FieldInjector(holder, key -> prototype,
+                Holder.class.getDeclaredField("prototype"));
+        constant.providerCheck();
+        constant.providerCheck();
+        prototyped.providerCheck();
+        
+        Holder first = new Holder();
+        Holder second = new Holder();
+        for (Holder instance : new Holder[]{first, second}) {
+            constant.inject(instance);
+            prototyped.inject(instance);
+        }
+        assertEquals(1, lookups.get());
+        assertEquals("value", first.constant);
+        assertSame(first.constant, second.constant);
+        assertNotSame(first.prototype, second.prototype);
+        assertEquals(2, provisions.get());
+    }
+    
+}
@@ -0,0 +1,161 @@
+package es.danpintas.tdi.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Scope;
+
+import org.junit.Test;
+
+import es.danpintas.reflect.TypeData;
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.keys.ProviderKey;
+import es.danpintas.tdi.keys.ScopeKey;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import es.danpintas.tdi.monitoring.ProvisionMetrics;
+
+/**
+ * Tests for {@link SoftProvider}.
+ *
+ * @author danpintas
+ */
+public class SoftScopeTest {
+    
+    @Scope
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Soft {
+        
+    }
+    
+    @Soft
+    static class LookupTable {
+        
+        static final AtomicInteger BUILDS = new AtomicInteger();
+        
+        final int[] values = new int[1024];
+        boolean closed;
+        
+        LookupTable() {
+            BUILDS.incrementAndGet();
+        }
+        
+        @PreDestroy
+        void close() {
+            closed = true;
+        }
+        
+    }
+    
+    static class Buffer {
+        
+        static final AtomicInteger RELEASED = new AtomicInteger();
+        
+        @PreDestroy
+        void release() {
+            RELEASED.incrementAndGet();
+        }
+        
+    }
+    
+    @Soft
+    static class Cache {
+        
+        @Inject
+        Buffer buffer;
+        
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void rebuildsClearedInstances() {
+        LongAdder rebuilds = new LongAdder();
+        SoftProvider<?>[] scoped = new SoftProvider<?>[1];
+        Injector injector = new BaseInjector(binder -> binder.bind(LookupTable.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{new ScopeKey(Soft.class,
+                        provider -> scoped[0] = new SoftProvider<>(provider, rebuilds))};
+            }
+        };
+        int builds = LookupTable.BUILDS.get();
+        LookupTable table = injector.getInstance(LookupTable.class);
+        assertSame(table, injector.getInstance(LookupTable.class));
+        assertEquals(0, rebuilds.sum());
+        
+        scoped[0].clear();
+        LookupTable rebuilt = injector.getInstance(LookupTable.class);
+        assertNotSame(table, rebuilt);
+        assertEquals(1, rebuilds.sum());
+        assertEquals(builds + 2, LookupTable.BUILDS.get());
+        
+        injector.destroy();
+        assertTrue(rebuilt.closed);
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void publishesRebuildsThroughMetrics() {
+        ProvisionMetrics metrics = new ProvisionMetrics();
+        SoftProvider<?>[] scoped = new SoftProvider<?>[1];
+        Injector injector = new BaseInjector(binder -> binder.bind(LookupTable.class)) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{new ScopeKey(Soft.class,
+                        provider -> scoped[0] = new SoftProvider<>(provider))};
+            }
+            
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{metrics};
+            }
+        };
+        String key = new ProviderKey<>(TypeData.get(LookupTable.class), Soft.class).toString();
+        injector.getInstance(LookupTable.class);
+        assertNull(metrics.getRebuilds().get(key));
+        for (int rebuild = 1; rebuild <= 2; rebuild++) {
+            scoped[0].clear();
+            injector.getInstance(LookupTable.class);
+        }
+        assertEquals(Long.valueOf(2), metrics.getRebuilds().get(key));
+        assertEquals(Long.valueOf(3), metrics.getInstancesCreated().get(key));
+        injector.destroy();
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void destroysInjectedPrototypesOnRebuild() {
+        SoftProvider<?>[] scoped = new SoftProvider<?>[1];
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Buffer.class);
+            binder.bind(Cache.class);
+        }) {
+            @Override
+            protected ScopeKey[] getScopes() {
+                return new ScopeKey[]{new ScopeKey(Soft.class,
+                        provider -> scoped[0] = new SoftProvider<>(provider, new LongAdder()))};
+            }
+        };
+        int released = Buffer.RELEASED.get();
+        injector.getInstance(Cache.class);
+        for (int rebuild = 1; rebuild <= 3; rebuild++) {
+            scoped[0].clear();
+            injector.getInstance(Cache.class);
+            assertEquals(rebuild, Buffer.RELEASED.get() - released);
+        }
+        
+        injector.destroy();
+        assertEquals(4, Buffer.RELEASED.get() - released);
+    }
+    
+}
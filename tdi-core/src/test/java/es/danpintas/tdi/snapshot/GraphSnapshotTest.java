@@ -0,0 +1,143 @@
+package es.danpintas.tdi.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.atinject.tck.auto.Convertible;
+import org.atinject.tck.auto.V8Engine;
+import org.atinject.tck.auto.accessories.SpareTire;
+import org.junit.Test;
+
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.injection.InjectionPoints;
+
+/**
+ * Tests for {@link GraphSnapshot}.
+ *
+ * @author danpintas
+ */
+public class GraphSnapshotTest {
+    
+    static class Resource {
+        
+        @PostConstruct
+        void open() {
+        }
+        
+        @PreDestroy
+        void close() {
+        }
+        
+    }
+    
+    static class File extends Resource {
+        
+        @SuppressWarnings("unused")
+        private void open(int mode) {
+        }
+        
+        @SuppressWarnings("unused")
+        private static void close(String reason) {
+        }
+        
+    }
+    
+    @Test
+    public void roundTripsInjectionPoints() throws IOException {
+        Path path = Files.createTempFile("tdi", ".snapshot");
+        try {
+            GraphSnapshot.write(path, Arrays.asList(InjectionPoints.of(Convertible.class),
+                    InjectionPoints.of(SpareTire.class)));
+            GraphSnapshot snapshot = GraphSnapshot.load(path);
+            for (Class<?> type : new Class<?>[]{Convertible.class, SpareTire.class}) {
+                InjectionPoints expected = InjectionPoints.of(type);
+                InjectionPoints loaded = snapshot.get(type);
+                assertEquals(expected.getConstructor(), loaded.getConstructor());
+                assertEquals(expected.getMembers(), loaded.getMembers());
+                assertEquals(expected.getPostConstruct(), loaded.getPostConstruct());
+                assertEquals(expected.getPreDestroy(), loaded.getPreDestroy());
+            }
+            assertNull(snapshot.get(V8Engine.class));
+        } finally {
+            Files.delete(path);
+        }
+    }
+    
+    @Test
+    public void resolvesInheritedLifecycleMethods() throws IOException, NoSuchMethodException {
+        Path path = Files.createTempFile("tdi", ".snapshot");
+        try {
+            Method open = Resource.class.getDeclaredMethod("open");
+            Method close = Resource.class.getDeclaredMethod("close");
+            InjectionPoints points = InjectionPoints.of(File.class);
+            GraphSnapshot.write(path, Collections.singletonList(new InjectionPoints(File.class,
+                    points.getConstructor(), points.getMembers(), open, close)));
+            InjectionPoints loaded = GraphSnapshot.load(path).get(File.class);
+            assertEquals(open, loaded.getPostConstruct());
+            assertEquals(close, loaded.getPreDestroy());
+        } finally {
+            Files.delete(path);
+        }
+    }
+    
+    @Test
+    public void discardsChangedClasses() throws IOException, URISyntaxException {
+        Path classFile = Paths.get(GraphSnapshotTest.class
+                .getResource(GraphSnapshotTest.class.getSimpleName() + ".class").toURI());
+        FileTime modified = Files.getLastModifiedTime(classFile);
+        Path path = Files.createTempFile("tdi", ".snapshot");
+        try {
+            GraphSnapshot.write(path, Collections.singletonList(
+                    InjectionPoints.of(GraphSnapshotTest.class)));
+            assertNotNull(GraphSnapshot.load(path).get(GraphSnapshotTest.class));
+            
+            Files.setLastModifiedTime(classFile, FileTime.fromMillis(modified.toMillis() + 2000));
+            assertNull(GraphSnapshot.load(path).get(GraphSnapshotTest.class));
+        } finally {
+            Files.setLastModifiedTime(classFile, modified);
+            Files.delete(path);
+        }
+    }
+    
+    @Test
+    public void ignoresUnwritableSnapshot() {
+        Path path = Paths.get("missing", "directory", "tdi.snapshot");
+        Injector injector = new BaseInjector(binder -> binder.bind(SpareTire.class)) {
+            @Override
+            protected Path getSnapshotPath() {
+                return path;
+            }
+        };
+        assertNotNull(injector.getInstance(SpareTire.class));
+        assertFalse(Files.exists(path));
+    }
+    
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("tdi", ".snapshot");
+        try {
+            Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            GraphSnapshot.load(path);
+        } finally {
+            assertTrue(Files.deleteIfExists(path));
+        }
+    }
+    
+}
@@ -0,0 +1,25 @@
+package es.danpintas.tdi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for an injector build phase.
+ *
+ * @author danpintas
+ */
+@Name("es.danpintas.tdi.Build")
+@Label("Injector Build")
+@Description("Injector build phase")
+@Category({"Dependency Injection", "TDI"})
+@Threshold("0 ms")
+class BuildEvent extends Event {
+    
+    @Label("Phase")
+    String phase;
+    
+}
@@ -0,0 +1,101 @@
+package es.danpintas.tdi.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import jdk.jfr.EventType;
+
+import es.danpintas.tdi.keys.BindingKey;
+import es.danpintas.tdi.keys.ProviderKey;
+import es.danpintas.tdi.monitoring.BuildPhase;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import es.danpintas.tdi.monitoring.ProvisionStage;
+
+/**
+ * {@link ProvisionListener} emitting Java Flight Recorder events. <br/>
+ * Thresholds default to 1 ms for provisions and 0 ms for the rest, and can be changed through the
+ * recording settings for the {@code es.danpintas.tdi.*} events. Events are only allocated while a
+ * recording enables them, so the listener costs a flag check per step otherwise.
+ *
+ * @author danpintas
+ */
+public class FlightRecorderListener implements ProvisionListener {
+    
+    private static final EventType PROVISION = EventType.getEventType(ProvisionEvent.class);
+    private static final EventType SCOPED = EventType.getEventType(ScopedProvisionEvent.class);
+    private static final EventType LIFECYCLE = EventType.getEventType(LifecycleEvent.class);
+    
+    // placeholder keeping the nesting depth of the steps whose event is disabled
+    private static final InjectionEvent DISABLED = new ProvisionEvent();
+    
+    private final ThreadLocal<Deque<InjectionEvent>> provisions =
+            ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<Deque<BuildEvent>> builds = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    @Override
+    public void started(ProvisionStage stage, ProviderKey<?> key) {
+        Deque<InjectionEvent> stack = provisions.get();
+        if (!isEnabled(stage)) {
+            stack.push(DISABLED);
+            return;
+        }
+        InjectionEvent event = create(stage);
+        event.depth = stack.size();
+        event.begin();
+        stack.push(event);
+    }
+    
+    @Override
+    public void finished(ProvisionStage stage, ProviderKey<?> key) {
+        InjectionEvent event = provisions.get().pop();
+        if (event == DISABLED)
+            return;
+        event.end();
+        if (event.shouldCommit()) {
+            BindingKey<?> binding = key.getBinding();
+            event.key = binding != null ? binding.toString() : key.getTypeData().toString();
+            event.implementation = key.getTypeData().toString();
+            event.scope = key.getScope() != null ? key.getScope().getSimpleName() : "Prototype";
+            event.commit();
+        }
+    }
+    
+    private static boolean isEnabled(ProvisionStage stage) {
+        switch (stage) {
+            case PROVISION:
+                return PROVISION.isEnabled();
+            case SCOPED:
+                return SCOPED.isEnabled();
+            default:
+                return LIFECYCLE.isEnabled();
+        }
+    }
+    
+    private static InjectionEvent create(ProvisionStage stage) {
+        switch (stage) {
+            case PROVISION:
+                return new ProvisionEvent();
+            case SCOPED:
+                return new ScopedProvisionEvent();
+            default:
+                LifecycleEvent event = new LifecycleEvent();
+                event.callback = stage == ProvisionStage.POST_CONSTRUCT ? "PostConstruct" : "PreDestroy";
+                return event;
+        }
+    }
+    
+    @Override
+    public void buildStarted(BuildPhase phase) {
+        // build phases are few, so their events are always tracked
+        BuildEvent event = new BuildEvent();
+        event.phase = phase.name();
+        event.begin();
+        builds.get().push(event);
+    }
+    
+    @Override
+    public void buildFinished(BuildPhase phase) {
+        builds.get().pop().commit();
+    }
+    
+}
@@ -0,0 +1,32 @@
+package es.danpintas.tdi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base Flight Recorder event for a provisioning step.
+ *
+ * @author danpintas
+ */
+@Category({"Dependency Injection", "TDI"})
+abstract class InjectionEvent extends Event {
+    
+    @Label("Key")
+    @Description("Binding key the provider was built for")
+    String key;
+    
+    @Label("Implementation")
+    @Description("Provided implementation type")
+    String implementation;
+    
+    @Label("Scope")
+    @Description("Scope annotation of the provider, Prototype if unscoped")
+    String scope;
+    
+    @Label("Depth")
+    @Description("Nesting depth of the step within the top level provision")
+    int depth;
+    
+}
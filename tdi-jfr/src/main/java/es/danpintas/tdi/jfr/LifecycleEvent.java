@@ -0,0 +1,22 @@
+package es.danpintas.tdi.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a PostConstruct or PreDestroy method execution.
+ *
+ * @author danpintas
+ */
+@Name("es.danpintas.tdi.Lifecycle")
+@Label("Lifecycle Callback")
+@Description("PostConstruct or PreDestroy method execution")
+@Threshold("0 ms")
+class LifecycleEvent extends InjectionEvent {
+    
+    @Label("Callback")
+    String callback;
+    
+}
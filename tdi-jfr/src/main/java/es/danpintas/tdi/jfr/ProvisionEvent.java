@@ -0,0 +1,19 @@
+package es.danpintas.tdi.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a new instance, including its member injection and post construct.
+ *
+ * @author danpintas
+ */
+@Name("es.danpintas.tdi.Provision")
+@Label("Provision")
+@Description("Instance created through an InstanceProvider")
+@Threshold("1 ms")
+class ProvisionEvent extends InjectionEvent {
+    
+}
@@ -0,0 +1,19 @@
+package es.danpintas.tdi.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for the creation of an instance cached by a scope, such as a singleton.
+ *
+ * @author danpintas
+ */
+@Name("es.danpintas.tdi.ScopedProvision")
+@Label("Scoped Provision")
+@Description("Instance created to be cached by a scope")
+@Threshold("0 ms")
+class ScopedProvisionEvent extends InjectionEvent {
+    
+}
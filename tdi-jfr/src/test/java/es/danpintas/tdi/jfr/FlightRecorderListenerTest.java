@@ -0,0 +1,115 @@
+package es.danpintas.tdi.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.junit.Test;
+
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Binder;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.monitoring.ProvisionListener;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests for {@link FlightRecorderListener}.
+ *
+ * @author danpintas
+ */
+public class FlightRecorderListenerTest {
+    
+    interface Service {
+        
+    }
+    
+    static class Leaf implements Service {
+        
+    }
+    
+    @Singleton
+    static class Root {
+        
+        @Inject
+        Service leaf;
+        
+    }
+    
+    private static void bind(Binder binder) {
+        binder.bind(Service.class).to(Leaf.class);
+        binder.bind(Root.class);
+    }
+    
+    private static Injector injector() {
+        return new BaseInjector(FlightRecorderListenerTest::bind) {
+            @Override
+            protected ProvisionListener[] getProvisionListeners() {
+                return new ProvisionListener[]{new FlightRecorderListener()};
+            }
+        };
+    }
+    
+    @Test
+    public void recordsNestedProvisions() throws IOException {
+        File file = File.createTempFile("tdi", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("es.danpintas.tdi.Provision").withThreshold(Duration.ZERO);
+            recording.enable("es.danpintas.tdi.ScopedProvision");
+            recording.enable("es.danpintas.tdi.Build");
+            recording.start();
+            injector().getInstance(Root.class);
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+        file.delete();
+        
+        List<RecordedEvent> provisions = named(events, "es.danpintas.tdi.Provision");
+        assertEquals(2, provisions.size());
+        for (RecordedEvent event : provisions)
+            if (event.getString("implementation").equals(Leaf.class.getName())) {
+                assertEquals(Service.class.getName(), event.getString("key"));
+                assertEquals(2, event.getInt("depth"));
+            } else
+                assertEquals("Singleton", event.getString("scope"));
+        assertEquals(1, named(events, "es.danpintas.tdi.ScopedProvision").size());
+        assertTrue(named(events, "es.danpintas.tdi.Build").size() >= 4);
+    }
+    
+    @Test
+    public void skipsDisabledEvents() throws IOException {
+        File file = File.createTempFile("tdi", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.disable("es.danpintas.tdi.Provision");
+            recording.disable("es.danpintas.tdi.ScopedProvision");
+            recording.enable("es.danpintas.tdi.Build");
+            recording.start();
+            Root root = injector().getInstance(Root.class);
+            assertTrue(root.leaf instanceof Leaf);
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+        file.delete();
+        
+        assertTrue(named(events, "es.danpintas.tdi.Provision").isEmpty());
+        assertTrue(named(events, "es.danpintas.tdi.ScopedProvision").isEmpty());
+        assertTrue(named(events, "es.danpintas.tdi.Build").size() >= 4);
+    }
+    
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+    
+}
@@ -0,0 +1,243 @@
+package es.danpintas.tdi.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor writing the injection index read by {@code InjectionIndex}, so the
+ * injector resolves the injection points of the compiled classes by name instead of scanning every
+ * declared member. <br/>
+ * Every compiled class is listed, even without injection points, so its absence from the index
+ * can be told apart from the class not being indexed. Each class is stamped with the names of its
+ * members, and the index of a previous compilation in the same output is merged, so partial
+ * recompilations keep the classes they did not compile.
+ *
+ * @author danpintas
+ */
+@SupportedAnnotationTypes("*")
+public class InjectionIndexProcessor extends AbstractProcessor {
+    
+    static final String RESOURCE = "META-INF/tdi/injection.index";
+    
+    private static final String INJECT = "javax.inject.Inject";
+    private static final String SCOPE = "javax.inject.Scope";
+    private static final String[] METHOD_ANNOTATIONS = {INJECT, "javax.annotation.PostConstruct",
+            "javax.annotation.PreDestroy"};
+    
+    private final Map<String, List<String>> index = new TreeMap<>();
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver())
+            write();
+        else
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+                addType(type);
+        return false;
+    }
+    
+    private void addType(TypeElement type) {
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements()))
+            addType(member);
+        if (!type.getKind().isClass())
+            return;
+        List<String> lines = new ArrayList<>();
+        lines.add("stamp " + stamp(type));
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            Element annotationType = annotation.getAnnotationType().asElement();
+            if (isAnnotated(annotationType, SCOPE))
+                lines.add("scope " + binaryName(annotationType));
+        }
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.CONSTRUCTOR && isAnnotated(element, INJECT))
+                lines.add("constructor" + parameters((ExecutableElement) element));
+            else if (element.getKind() == ElementKind.FIELD && isAnnotated(element, INJECT))
+                lines.add("field " + element.getSimpleName());
+            else if (element.getKind() == ElementKind.METHOD)
+                addMethod(lines, type, (ExecutableElement) element);
+        }
+        index.put(binaryName(type), lines);
+    }
+    
+    private static int stamp(TypeElement type) {
+        int stamp = 0;
+        for (Element element : type.getEnclosedElements()) {
+            switch (element.getKind()) {
+                case FIELD:
+                case ENUM_CONSTANT:
+                    stamp += ("field " + element.getSimpleName()).hashCode();
+                    break;
+                case METHOD:
+                    stamp += ("method " + element.getSimpleName() + ' '
+                            + ((ExecutableElement) element).getParameters().size()).hashCode();
+                    break;
+                case CONSTRUCTOR:
+                    stamp += "constructor".hashCode();
+                    break;
+                default:
+                    // nested types are stamped on their own
+            }
+        }
+        return stamp;
+    }
+    
+    private void addMethod(List<String> lines, TypeElement type, ExecutableElement method) {
+        String signature = method.getSimpleName() + parameters(method);
+        boolean inject = false;
+        for (String annotation : METHOD_ANNOTATIONS) {
+            if (isAnnotated(method, annotation)) {
+                lines.add("method " + annotation + ' ' + signature);
+                inject |= INJECT.equals(annotation);
+            }
+        }
+        if (!inject && overridesInject(type, method))
+            lines.add("override " + signature);
+    }
+    
+    private boolean overridesInject(TypeElement type, ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PRIVATE))
+            return false;
+        for (TypeMirror s = type.getSuperclass(); s.getKind() == TypeKind.DECLARED; ) {
+            TypeElement superType = (TypeElement) ((DeclaredType) s).asElement();
+            for (ExecutableElement candidate : ElementFilter.methodsIn(superType.getEnclosedElements()))
+                if (candidate.getSimpleName().equals(method.getSimpleName())
+                        && isAnnotated(candidate, INJECT)
+                        && (processingEnv.getElementUtils().overrides(method, candidate, type)
+                        || processingEnv.getElementUtils().hides(method, candidate)))
+                    return true;
+            s = superType.getSuperclass();
+        }
+        return false;
+    }
+    
+    private static boolean isAnnotated(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(annotation))
+                return true;
+        return false;
+    }
+    
+    private String parameters(ExecutableElement executable) {
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : executable.getParameters())
+            parameters.append(' ').append(typeName(parameter.asType()));
+        return parameters.toString();
+    }
+    
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        switch (erased.getKind()) {
+            case ARRAY:
+                return '[' + descriptor(((ArrayType) erased).getComponentType());
+            case DECLARED:
+                return binaryName(((DeclaredType) erased).asElement());
+            default:
+                return erased.toString();
+        }
+    }
+    
+    private String descriptor(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        switch (erased.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case ARRAY:
+                return '[' + descriptor(((ArrayType) erased).getComponentType());
+            default:
+                return 'L' + typeName(erased) + ';';
+        }
+    }
+    
+    private String binaryName(Element type) {
+        return processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString();
+    }
+    
+    private void write() {
+        if (index.isEmpty())
+            return;
+        Map<String, List<String>> merged = read();
+        merged.putAll(index);
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+            try (Writer writer = resource.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+                for (Map.Entry<String, List<String>> entry : merged.entrySet()) {
+                    out.println("class " + entry.getKey());
+                    for (String line : entry.getValue())
+                        out.println(line);
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + RESOURCE + ": " + e.getMessage());
+        }
+    }
+    
+    private Map<String, List<String>> read() {
+        Map<String, List<String>> previous = new TreeMap<>();
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE);
+            try (BufferedReader reader = new BufferedReader(resource.openReader(true))) {
+                List<String> lines = null;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.startsWith("class "))
+                        previous.put(line.substring(6), lines = new ArrayList<>());
+                    else if (lines != null)
+                        lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // first compilation of this output, nothing to merge
+        }
+        return previous;
+    }
+    
+}
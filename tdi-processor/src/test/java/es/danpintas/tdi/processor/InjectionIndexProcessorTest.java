@@ -0,0 +1,156 @@
+package es.danpintas.tdi.processor;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import es.danpintas.tdi.BaseInjector;
+import es.danpintas.tdi.Injector;
+import es.danpintas.tdi.index.IndexedType;
+import es.danpintas.tdi.index.InjectionIndex;
+
+/**
+ * Tests for {@link InjectionIndexProcessor}, run on the test classes it indexed.
+ *
+ * @author danpintas
+ */
+public class InjectionIndexProcessorTest {
+    
+    private static final String PACKAGE = "es.danpintas.tdi.processor.fixtures";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    static class Dependency {
+        
+    }
+    
+    static class Base {
+        
+        @Inject
+        Dependency field;
+        
+        Dependency method;
+        boolean overridden;
+        boolean initialized;
+        
+        @Inject
+        void method(Dependency dependency) {
+            this.method = dependency;
+        }
+        
+        @Inject
+        void overridden(Dependency[] dependencies) {
+            this.overridden = true;
+        }
+        
+    }
+    
+    @Singleton
+    static class Sub extends Base {
+        
+        @Inject
+        Sub() {
+        }
+        
+        @Override
+        void overridden(Dependency[] dependencies) {
+        }
+        
+        @PostConstruct
+        void init() {
+            this.initialized = true;
+        }
+        
+    }
+    
+    @Test
+    public void indexesInjectionPoints() throws ReflectiveOperationException {
+        IndexedType base = InjectionIndex.lookup(Base.class);
+        IndexedType sub = InjectionIndex.lookup(Sub.class);
+        assertNotNull(InjectionIndex.lookup(Dependency.class));
+        assertEquals(singletonList(Base.class.getDeclaredField("field")), base.getFields());
+        assertEquals(2, base.getMethods(Inject.class).size());
+        assertEquals(singletonList(Sub.class.getDeclaredMethod("init")),
+                sub.getMethods(PostConstruct.class));
+        assertEquals(singletonList(Sub.class.getDeclaredConstructor()), sub.getConstructors());
+        assertEquals(singletonList(Sub.class.getDeclaredMethod("overridden", Dependency[].class)),
+                sub.getOverrides());
+        assertTrue(sub.isScoped(Singleton.class));
+        assertFalse(base.isScoped(Singleton.class));
+    }
+    
+    @Test
+    public void injectsIndexedTypes() {
+        Injector injector = new BaseInjector(binder -> {
+            binder.bind(Dependency.class);
+            binder.bind(Sub.class);
+        });
+        Sub sub = injector.getInstance(Sub.class);
+        assertNotNull(sub.field);
+        assertNotNull(sub.method);
+        assertFalse(sub.overridden);
+        assertTrue(sub.initialized);
+        assertSame(sub, injector.getInstance(Sub.class));
+    }
+    
+    @Test
+    public void mergesPreviousIndexAndIgnoresStaleEntries() throws Exception {
+        File output = folder.newFolder();
+        compile(output, true, "Stale", "");
+        compile(output, true, "Other", "");
+        ClassLoader loader = load(output);
+        assertNotNull(InjectionIndex.lookup(loader.loadClass(PACKAGE + ".Stale")));
+        assertNotNull(InjectionIndex.lookup(loader.loadClass(PACKAGE + ".Other")));
+        
+        compile(output, false, "Stale", "@Inject Object added;");
+        loader = load(output);
+        assertNull(InjectionIndex.lookup(loader.loadClass(PACKAGE + ".Stale")));
+        assertNotNull(InjectionIndex.lookup(loader.loadClass(PACKAGE + ".Other")));
+    }
+    
+    private void compile(File output, boolean process, String name, String body) throws IOException {
+        Path source = folder.newFolder().toPath().resolve(name + ".java");
+        Files.write(source, ("package " + PACKAGE + ";\n"
+                + "import javax.inject.Inject;\n"
+                + "public class " + name + " {\n" + body + "\n}\n").getBytes(StandardCharsets.UTF_8));
+        List<String> arguments = new ArrayList<>(Arrays.asList("-classpath",
+                System.getProperty("java.class.path"), "-d", output.getPath()));
+        if (process)
+            arguments.addAll(Arrays.asList("-processor", InjectionIndexProcessor.class.getName()));
+        else
+            arguments.add("-proc:none");
+        arguments.add(source.toString());
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                arguments.toArray(new String[0])));
+    }
+    
+    private ClassLoader load(File output) throws IOException {
+        return new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+    }
+    
+}